@@ -14,11 +14,21 @@
 
 package com.github.housepower.buffer;
 
+import java.io.Closeable;
 import java.io.IOException;
 
-public interface BuffedReader {
+public interface BuffedReader extends Closeable {
 
     int readBinary() throws IOException;
 
     int readBinary(byte[] bytes) throws IOException;
+
+    int readBinary(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Release the resources held by the buffer, the underlying socket is owned and closed by the caller.
+     */
+    @Override
+    default void close() throws IOException {
+    }
 }
@@ -14,9 +14,10 @@
 
 package com.github.housepower.buffer;
 
+import java.io.Closeable;
 import java.io.IOException;
 
-public interface BuffedWriter {
+public interface BuffedWriter extends Closeable {
 
     void writeBinary(byte byt) throws IOException;
 
@@ -25,4 +26,11 @@ public interface BuffedWriter {
     void writeBinary(byte[] bytes, int offset, int length) throws IOException;
 
     void flushToTarget(boolean force) throws IOException;
+
+    /**
+     * Release the resources held by the buffer, the underlying socket is owned and closed by the caller.
+     */
+    @Override
+    default void close() throws IOException {
+    }
 }
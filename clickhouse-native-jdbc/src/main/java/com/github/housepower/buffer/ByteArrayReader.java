@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Reads from an in-memory byte array, e.g. the raw bytes of a column kept for lazy decoding.
+ */
+public class ByteArrayReader implements BuffedReader {
+
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    public ByteArrayReader(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public ByteArrayReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    @Override
+    public int readBinary() throws IOException {
+        if (position == limit) {
+            throw new EOFException("Attempt to read after eof.");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public int readBinary(byte[] bytes) throws IOException {
+        return readBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int readBinary(byte[] dst, int offset, int length) throws IOException {
+        if (length > limit - position) {
+            throw new EOFException("Attempt to read after eof.");
+        }
+        System.arraycopy(bytes, position, dst, offset, length);
+        position += length;
+        return length;
+    }
+}
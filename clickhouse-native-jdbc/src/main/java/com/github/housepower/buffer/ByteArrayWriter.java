@@ -16,26 +16,40 @@ package com.github.housepower.buffer;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Writes into a list of heap {@link ByteBuffer} chunks taken from a {@link ByteBufferPool}.
+ * <p>
+ * The first chunk is {@code initialBlockSize} and each following chunk doubles up to {@code maxBlockSize},
+ * so narrow columns stay small while wide columns quickly reach the max chunk size.
+ * Call {@link #release()} to return the chunks to the pool once their content has been consumed.
+ */
 public class ByteArrayWriter implements BuffedWriter {
-    private final int blockSize;
-    private ByteBuffer buffer;
+    private final int maxBlockSize;
+    private final ByteBufferPool pool;
+    private final List<ByteBuffer> byteBufferList = new ArrayList<>();
 
-    // TODO pooling
-    private final List<ByteBuffer> byteBufferList = new LinkedList<>();
+    private int nextBlockSize;
+    private ByteBuffer buffer;
 
     public ByteArrayWriter(int blockSize) {
-        this.blockSize = blockSize;
-        this.buffer = ByteBuffer.allocate(blockSize);
-        this.byteBufferList.add(buffer);
+        this(blockSize, blockSize, ByteBufferPool.HEAP);
+    }
+
+    public ByteArrayWriter(int initialBlockSize, int maxBlockSize, ByteBufferPool pool) {
+        this.maxBlockSize = maxBlockSize;
+        this.nextBlockSize = Math.min(initialBlockSize, maxBlockSize);
+        this.pool = pool;
     }
 
     @Override
     public void writeBinary(byte byt) throws IOException {
+        if (buffer == null || !buffer.hasRemaining()) {
+            flushToTarget(true);
+        }
         buffer.put(byt);
-        flushToTarget(false);
     }
 
     @Override
@@ -45,6 +59,9 @@ public class ByteArrayWriter implements BuffedWriter {
 
     @Override
     public void writeBinary(byte[] bytes, int offset, int length) throws IOException {
+        if (buffer == null) {
+            flushToTarget(true);
+        }
 
         while (buffer.remaining() < length) {
             int num = buffer.remaining();
@@ -56,19 +73,30 @@ public class ByteArrayWriter implements BuffedWriter {
         }
 
         buffer.put(bytes, offset, length);
-        flushToTarget(false);
     }
 
     @Override
     public void flushToTarget(boolean force) throws IOException {
-        if (buffer.hasRemaining() && !force) {
+        if (buffer != null && buffer.hasRemaining() && !force) {
             return;
         }
-        buffer = ByteBuffer.allocate(blockSize);
+        buffer = pool.acquire(nextBlockSize);
         byteBufferList.add(buffer);
+        nextBlockSize = Math.min(nextBlockSize << 1, maxBlockSize);
     }
 
     public List<ByteBuffer> getBufferList() {
         return byteBufferList;
     }
+
+    /**
+     * Return all chunks to the pool. The writer stays usable, and keeps the chunk size it has grown to.
+     */
+    public void release() {
+        for (ByteBuffer buf : byteBufferList) {
+            pool.release(buf);
+        }
+        byteBufferList.clear();
+        buffer = null;
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.settings.ClickHouseDefines;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe pool of {@link ByteBuffer}s grouped by capacity.
+ * <p>
+ * Buffers beyond {@code maxPooledBytes} are not retained on release and will be reclaimed by GC.
+ */
+public class ByteBufferPool {
+
+    public static final ByteBufferPool DIRECT = new ByteBufferPool(true, ClickHouseDefines.DIRECT_BUFFER_POOL_BYTES);
+    public static final ByteBufferPool HEAP = new ByteBufferPool(false, ClickHouseDefines.COLUMN_BUFFER_POOL_BYTES);
+
+    private final boolean direct;
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> pools = new ConcurrentHashMap<>();
+
+    public ByteBufferPool(boolean direct, long maxPooledBytes) {
+        this.direct = direct;
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    @SuppressWarnings("RedundantCast")
+    public ByteBuffer acquire(int capacity) {
+        ByteBuffer buffer = pool(capacity).poll();
+        if (buffer == null) {
+            return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        }
+        pooledBytes.addAndGet(-capacity);
+        // upcast is necessary, see detail at:
+        // https://bitbucket.org/ijabz/jaudiotagger/issues/313/java-8-javalangnosuchmethoderror
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.isDirect() != direct) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity);
+            return;
+        }
+        pool(capacity).offer(buffer);
+    }
+
+    public long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    private Queue<ByteBuffer> pool(int capacity) {
+        // ConcurrentHashMap#computeIfAbsent always locks the bin on JDK 8, try lock-free get first
+        Queue<ByteBuffer> pool = pools.get(capacity);
+        return pool != null ? pool : pools.computeIfAbsent(capacity, c -> new ConcurrentLinkedQueue<>());
+    }
+}
@@ -16,24 +16,35 @@ package com.github.housepower.buffer;
 
 import java.io.IOException;
 
+import com.github.housepower.buffer.codec.CompressionCodec;
+import com.github.housepower.buffer.codec.Lz4Codec;
+import com.github.housepower.buffer.codec.NoneCodec;
+import com.github.housepower.buffer.codec.ZstdCodec;
 import com.github.housepower.misc.BytesHelper;
-import io.airlift.compress.Decompressor;
-import io.airlift.compress.lz4.Lz4Decompressor;
-import io.airlift.compress.zstd.ZstdDecompressor;
 
 import static com.github.housepower.settings.ClickHouseDefines.CHECKSUM_LENGTH;
 import static com.github.housepower.settings.ClickHouseDefines.COMPRESSION_HEADER_LENGTH;
 
+/**
+ * Reads compressed frames from the underlying reader.
+ * <p>
+ * The header, compressed and decompressed buffers are reused across frames and only grow when a
+ * larger frame arrives, so reading a stream of frames does not allocate.
+ */
 public class CompressedBuffedReader implements BuffedReader, BytesHelper {
 
     private int position;
-    private int capacity;
-    private byte[] decompressed;
+    private int limit;
+
+    private final byte[] header = new byte[CHECKSUM_LENGTH + COMPRESSION_HEADER_LENGTH];
+    private byte[] compressed = new byte[0];
+    private byte[] decompressed = new byte[0];
 
     private final BuffedReader buf;
 
-    private final Decompressor lz4Decompressor = new Lz4Decompressor();
-    private final Decompressor zstdDecompressor = new ZstdDecompressor();
+    private final CompressionCodec lz4Codec = new Lz4Codec();
+    // created on the first ZSTD frame
+    private CompressionCodec zstdCodec;
 
     public CompressedBuffedReader(BuffedReader buf) {
         this.buf = buf;
@@ -41,10 +52,8 @@ public class CompressedBuffedReader implements BuffedReader, BytesHelper {
 
     @Override
     public int readBinary() throws IOException {
-        if (position == capacity) {
-            decompressed = readCompressedData();
-            this.position = 0;
-            this.capacity = decompressed.length;
+        if (position == limit) {
+            readCompressedData();
         }
 
         return decompressed[position++];
@@ -52,15 +61,19 @@ public class CompressedBuffedReader implements BuffedReader, BytesHelper {
 
     @Override
     public int readBinary(byte[] bytes) throws IOException {
-        for (int i = 0; i < bytes.length; ) {
-            if (position == capacity) {
-                decompressed = readCompressedData();
-                this.position = 0;
-                this.capacity = decompressed.length;
+        return readBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int i = offset; i < end; ) {
+            if (position == limit) {
+                readCompressedData();
             }
 
-            int padding = bytes.length - i;
-            int fillLength = Math.min(padding, capacity - position);
+            int padding = end - i;
+            int fillLength = Math.min(padding, limit - position);
 
             if (fillLength > 0) {
                 System.arraycopy(decompressed, position, bytes, i, fillLength);
@@ -69,59 +82,66 @@ public class CompressedBuffedReader implements BuffedReader, BytesHelper {
                 this.position += fillLength;
             }
         }
-        return bytes.length;
+        return length;
     }
 
     // @formatter:off
-    private static final int NONE = 0x02;
-    private static final int LZ4  = 0x82;
-    private static final int ZSTD = 0x90;
+    private static final int NONE = NoneCodec.METHOD_BYTE;
+    private static final int LZ4  = Lz4Codec.METHOD_BYTE;
+    private static final int ZSTD = ZstdCodec.METHOD_BYTE;
     // @formatter:on
 
-    private byte[] readCompressedData() throws IOException {
+    private void readCompressedData() throws IOException {
         //TODO: validate checksum
-        buf.readBinary(new byte[CHECKSUM_LENGTH]);
-
-        byte[] compressedHeader = new byte[COMPRESSION_HEADER_LENGTH];
-
-        if (buf.readBinary(compressedHeader) != COMPRESSION_HEADER_LENGTH) {
+        if (buf.readBinary(header) != header.length) {
             throw new IOException("Invalid compression header");
         }
 
-        int method = compressedHeader[0] & 0x0FF;
-        int compressedSize = getIntLE(compressedHeader, 1);
-        int decompressedSize = getIntLE(compressedHeader, 5);
+        int method = header[CHECKSUM_LENGTH] & 0x0FF;
+        int compressedSize = getIntLE(header, CHECKSUM_LENGTH + 1);
+        int decompressedSize = getIntLE(header, CHECKSUM_LENGTH + 5);
+
+        if (decompressed.length < decompressedSize) {
+            decompressed = new byte[decompressedSize];
+        }
 
         switch (method) {
             case LZ4:
-                return readLZ4CompressedData(compressedSize - COMPRESSION_HEADER_LENGTH, decompressedSize);
+                readCompressedData(lz4Codec, "LZ4", compressedSize - COMPRESSION_HEADER_LENGTH, decompressedSize);
+                break;
+            case ZSTD:
+                if (zstdCodec == null) {
+                    zstdCodec = new ZstdCodec();
+                }
+                readCompressedData(zstdCodec, "ZSTD", compressedSize - COMPRESSION_HEADER_LENGTH, decompressedSize);
+                break;
             case NONE:
-                return readNoneCompressedData(decompressedSize);
+                readNoneCompressedData(decompressedSize);
+                break;
             default:
                 throw new UnsupportedOperationException("Unknown compression magic code: " + method);
         }
-    }
 
-    private byte[] readNoneCompressedData(int size) throws IOException {
-        byte[] decompressed = new byte[size];
+        this.position = 0;
+        this.limit = decompressedSize;
+    }
 
-        if (buf.readBinary(decompressed) != size) {
+    private void readNoneCompressedData(int size) throws IOException {
+        if (buf.readBinary(decompressed, 0, size) != size) {
             throw new IOException("Cannot decompress use None method.");
         }
-
-        return decompressed;
     }
 
-    private byte[] readLZ4CompressedData(int compressedSize, int decompressedSize) throws IOException {
-        byte[] compressed = new byte[compressedSize];
-        if (buf.readBinary(compressed) == compressedSize) {
-            byte[] decompressed = new byte[decompressedSize];
-
-            if (lz4Decompressor.decompress(compressed, 0, compressedSize, decompressed, 0, decompressedSize) == decompressedSize) {
-                return decompressed;
+    private void readCompressedData(CompressionCodec codec, String name, int compressedSize, int decompressedSize) throws IOException {
+        if (compressed.length < compressedSize) {
+            compressed = new byte[compressedSize];
+        }
+        if (buf.readBinary(compressed, 0, compressedSize) == compressedSize) {
+            if (codec.decompress(compressed, 0, compressedSize, decompressed, 0, decompressedSize) == decompressedSize) {
+                return;
             }
         }
 
-        throw new IOException("Cannot decompress use LZ4 method.");
+        throw new IOException("Cannot decompress use " + name + " method.");
     }
 }
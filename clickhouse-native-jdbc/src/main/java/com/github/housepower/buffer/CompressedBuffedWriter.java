@@ -14,32 +14,43 @@
 
 package com.github.housepower.buffer;
 
-import com.github.housepower.misc.BytesHelper;
-import com.github.housepower.misc.ClickHouseCityHash;
-import io.airlift.compress.Compressor;
-import io.airlift.compress.lz4.Lz4Compressor;
-import io.airlift.compress.zstd.ZstdCompressor;
+import com.github.housepower.buffer.codec.CompressionCodec;
+import com.github.housepower.buffer.codec.Lz4Codec;
+import com.github.housepower.settings.ClickHouseConfig;
 
 import java.io.IOException;
 
-import static com.github.housepower.settings.ClickHouseDefines.CHECKSUM_LENGTH;
-import static com.github.housepower.settings.ClickHouseDefines.COMPRESSION_HEADER_LENGTH;
-
-public class CompressedBuffedWriter implements BuffedWriter, BytesHelper {
+public class CompressedBuffedWriter implements BuffedWriter {
 
     private final int capacity;
     private final byte[] writtenBuf;
     private final BuffedWriter writer;
-
-    private final Compressor lz4Compressor = new Lz4Compressor();
-    private final Compressor zstdCompressor = new ZstdCompressor();
+    // reused for every frame
+    private final CompressedFrameEncoder encoder;
 
     private int position;
 
     public CompressedBuffedWriter(int capacity, BuffedWriter writer) {
+        this(capacity, writer, new Lz4Codec());
+    }
+
+    public CompressedBuffedWriter(int capacity, BuffedWriter writer, CompressionCodec codec) {
+        this(capacity, writer, new CompressedFrameEncoder(capacity, codec));
+    }
+
+    /**
+     * Compress with the method and thresholds of {@code cfg}.
+     */
+    public CompressedBuffedWriter(int capacity, BuffedWriter writer, ClickHouseConfig cfg) {
+        this(capacity, writer, new CompressedFrameEncoder(capacity, cfg.compressMethod().newCodec(),
+                cfg.compressMinFrameBytes(), cfg.compressMaxRatio(), cfg.compressSkipFrames()));
+    }
+
+    private CompressedBuffedWriter(int capacity, BuffedWriter writer, CompressedFrameEncoder encoder) {
         this.capacity = capacity;
         this.writtenBuf = new byte[capacity];
         this.writer = writer;
+        this.encoder = encoder;
     }
 
     @Override
@@ -73,21 +84,8 @@ public class CompressedBuffedWriter implements BuffedWriter, BytesHelper {
     @Override
     public void flushToTarget(boolean force) throws IOException {
         if (position > 0 && (force || !hasRemaining())) {
-            int maxLen = lz4Compressor.maxCompressedLength(position);
-
-            byte[] compressedBuffer = new byte[maxLen + COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH];
-            int res = lz4Compressor.compress(writtenBuf, 0, position, compressedBuffer, COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH, compressedBuffer.length);
-
-            compressedBuffer[CHECKSUM_LENGTH] = (byte) (0x82 & 0xFF);
-            int compressedSize = res + COMPRESSION_HEADER_LENGTH;
-            System.arraycopy(getBytesLE(compressedSize), 0, compressedBuffer, CHECKSUM_LENGTH + 1, Integer.BYTES);
-            System.arraycopy(getBytesLE(position), 0, compressedBuffer, CHECKSUM_LENGTH + Integer.BYTES + 1, Integer.BYTES);
-
-            long[] checksum = ClickHouseCityHash.cityHash128(compressedBuffer, CHECKSUM_LENGTH, compressedSize);
-            System.arraycopy(getBytesLE(checksum[0]), 0, compressedBuffer, 0, Long.BYTES);
-            System.arraycopy(getBytesLE(checksum[1]), 0, compressedBuffer, Long.BYTES, Long.BYTES);
-
-            writer.writeBinary(compressedBuffer, 0, compressedSize + CHECKSUM_LENGTH);
+            int frameLength = encoder.encode(writtenBuf, position);
+            writer.writeBinary(encoder.frame(), 0, frameLength);
             position = 0;
         }
     }
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.buffer.codec.CompressionCodec;
+import com.github.housepower.buffer.codec.NoneCodec;
+import com.github.housepower.misc.BytesHelper;
+import com.github.housepower.misc.ClickHouseCityHash;
+import com.github.housepower.settings.ClickHouseDefines;
+
+import static com.github.housepower.settings.ClickHouseDefines.CHECKSUM_LENGTH;
+import static com.github.housepower.settings.ClickHouseDefines.COMPRESSION_HEADER_LENGTH;
+
+/**
+ * Encodes chunks into compressed frames: checksum + header + compressed data.
+ * <p>
+ * The frame buffer is reused, so a frame must be consumed before encoding the next one. Not thread safe.
+ */
+class CompressedFrameEncoder implements BytesHelper {
+
+    private final CompressionCodec codec;
+    // frames smaller than this, or compressed to more than maxRatio of their size, are stored raw
+    private final int minFrameBytes;
+    private final float maxRatio;
+    private final int skipFramesAfterMiss;
+    private final byte[] frame;
+    private final long[] checksum = new long[2];
+
+    // frames left to store without compression after an incompressible frame
+    private int skipFrames;
+
+    CompressedFrameEncoder(int capacity, CompressionCodec codec) {
+        this(capacity, codec, ClickHouseDefines.DEFAULT_COMPRESS_MIN_FRAME_BYTES,
+                ClickHouseDefines.DEFAULT_COMPRESS_MAX_RATIO, ClickHouseDefines.DEFAULT_COMPRESS_SKIP_FRAMES);
+    }
+
+    CompressedFrameEncoder(int capacity, CompressionCodec codec, int minFrameBytes, float maxRatio,
+                           int skipFramesAfterMiss) {
+        this.codec = codec;
+        this.minFrameBytes = minFrameBytes;
+        this.maxRatio = maxRatio;
+        this.skipFramesAfterMiss = skipFramesAfterMiss;
+        this.frame = new byte[codec.maxCompressedLength(capacity) + COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH];
+    }
+
+    byte[] frame() {
+        return frame;
+    }
+
+    /**
+     * @return length of the encoded frame in {@link #frame()}
+     */
+    int encode(byte[] input, int length) {
+        int method = codec.methodByte();
+        int res;
+        if (length < minFrameBytes || skipFrames > 0) {
+            skipFrames = Math.max(skipFrames - 1, 0);
+            method = NoneCodec.METHOD_BYTE;
+            res = storeRaw(input, length);
+        } else {
+            res = codec.compress(input, 0, length, frame, COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH,
+                    frame.length - COMPRESSION_HEADER_LENGTH - CHECKSUM_LENGTH);
+            if (res > length * maxRatio) {
+                // incompressible, e.g. UUID or hash columns, stop trying for a while
+                skipFrames = skipFramesAfterMiss;
+                method = NoneCodec.METHOD_BYTE;
+                res = storeRaw(input, length);
+            }
+        }
+
+        frame[CHECKSUM_LENGTH] = (byte) (method & 0xFF);
+        int compressedSize = res + COMPRESSION_HEADER_LENGTH;
+        setIntLE(frame, CHECKSUM_LENGTH + 1, compressedSize);
+        setIntLE(frame, CHECKSUM_LENGTH + Integer.BYTES + 1, length);
+
+        ClickHouseCityHash.cityHash128(frame, CHECKSUM_LENGTH, compressedSize, checksum);
+        setLongLE(frame, 0, checksum[0]);
+        setLongLE(frame, Long.BYTES, checksum[1]);
+
+        return compressedSize + CHECKSUM_LENGTH;
+    }
+
+    private int storeRaw(byte[] input, int length) {
+        System.arraycopy(input, 0, frame, COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH, length);
+        return length;
+    }
+}
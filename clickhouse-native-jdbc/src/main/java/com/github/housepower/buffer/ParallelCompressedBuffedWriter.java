@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.buffer.codec.CompressionCodec;
+import com.github.housepower.misc.NamedThreadFactory;
+import com.github.housepower.settings.ClickHouseConfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compresses full chunks on a shared worker pool while the caller keeps filling the next chunk.
+ * <p>
+ * At most {@code parallelism} chunks of one writer are in flight, frames are written to the underlying
+ * writer in the order the chunks were filled.
+ */
+public class ParallelCompressedBuffedWriter implements BuffedWriter {
+
+    private static final class Workers {
+        private static final ExecutorService POOL = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), new NamedThreadFactory("clickhouse-compress"));
+    }
+
+    private static final class Chunk {
+        private final byte[] buf;
+        private final CompressedFrameEncoder encoder;
+        private int position;
+        private Future<Integer> frameLength;
+
+        private Chunk(int capacity, CompressedFrameEncoder encoder) {
+            this.buf = new byte[capacity];
+            this.encoder = encoder;
+        }
+    }
+
+    private final int capacity;
+    private final int parallelism;
+    private final BuffedWriter writer;
+    private final Supplier<CompressedFrameEncoder> encoderSupplier;
+    private final ExecutorService executor;
+
+    private final Deque<Chunk> idle = new ArrayDeque<>();
+    private final Deque<Chunk> inFlight = new ArrayDeque<>();
+    private Chunk current;
+
+    public ParallelCompressedBuffedWriter(int capacity, BuffedWriter writer,
+                                          Supplier<CompressionCodec> codecSupplier, int parallelism) {
+        this(capacity, writer, codecSupplier, parallelism, Workers.POOL);
+    }
+
+    /**
+     * Compress with the method, parallelism and thresholds of {@code cfg}.
+     */
+    public ParallelCompressedBuffedWriter(int capacity, BuffedWriter writer, ClickHouseConfig cfg) {
+        this(capacity, cfg.compressParallelism(), writer, () -> new CompressedFrameEncoder(capacity,
+                cfg.compressMethod().newCodec(), cfg.compressMinFrameBytes(), cfg.compressMaxRatio(),
+                cfg.compressSkipFrames()), Workers.POOL);
+    }
+
+    ParallelCompressedBuffedWriter(int capacity, BuffedWriter writer, Supplier<CompressionCodec> codecSupplier,
+                                   int parallelism, ExecutorService executor) {
+        this(capacity, parallelism, writer, () -> new CompressedFrameEncoder(capacity, codecSupplier.get()), executor);
+    }
+
+    private ParallelCompressedBuffedWriter(int capacity, int parallelism, BuffedWriter writer,
+                                           Supplier<CompressedFrameEncoder> encoderSupplier, ExecutorService executor) {
+        this.capacity = capacity;
+        this.parallelism = parallelism;
+        this.writer = writer;
+        this.encoderSupplier = encoderSupplier;
+        this.executor = executor;
+    }
+
+    @Override
+    public void writeBinary(byte byt) throws IOException {
+        Chunk chunk = current();
+        chunk.buf[chunk.position++] = byt;
+        if (chunk.position == capacity) {
+            submit();
+        }
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes) throws IOException {
+        writeBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            Chunk chunk = current();
+            int num = Math.min(length, capacity - chunk.position);
+            System.arraycopy(bytes, offset, chunk.buf, chunk.position, num);
+            chunk.position += num;
+            offset += num;
+            length -= num;
+            if (chunk.position == capacity) {
+                submit();
+            }
+        }
+    }
+
+    @Override
+    public void flushToTarget(boolean force) throws IOException {
+        if (!force) {
+            return;
+        }
+        if (current != null && current.position > 0) {
+            submit();
+        }
+        while (!inFlight.isEmpty()) {
+            emitOldest();
+        }
+    }
+
+    private Chunk current() throws IOException {
+        if (current == null) {
+            if (idle.isEmpty() && inFlight.size() >= parallelism) {
+                emitOldest();
+            }
+            current = idle.isEmpty() ? new Chunk(capacity, encoderSupplier.get()) : idle.poll();
+        }
+        return current;
+    }
+
+    private void submit() throws IOException {
+        Chunk chunk = current;
+        current = null;
+        chunk.frameLength = executor.submit(() -> chunk.encoder.encode(chunk.buf, chunk.position));
+        inFlight.add(chunk);
+        // keep the socket busy with the frames already done
+        while (!inFlight.isEmpty() && inFlight.peek().frameLength.isDone()) {
+            emitOldest();
+        }
+    }
+
+    private void emitOldest() throws IOException {
+        Chunk chunk = inFlight.poll();
+        int frameLength;
+        boolean compressed = false;
+        try {
+            frameLength = chunk.frameLength.get();
+            compressed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compression");
+        } catch (ExecutionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        } finally {
+            if (!compressed) {
+                abort();
+            }
+        }
+        writer.writeBinary(chunk.encoder.frame(), 0, frameLength);
+        chunk.position = 0;
+        chunk.frameLength = null;
+        idle.add(chunk);
+    }
+
+    @Override
+    public void close() {
+        abort();
+    }
+
+    // the stream is broken, stop the pending compressions and drop the chunks, a cancelled task may still be encoding
+    private void abort() {
+        for (Chunk chunk : inFlight) {
+            chunk.frameLength.cancel(true);
+        }
+        inFlight.clear();
+        idle.clear();
+        current = null;
+    }
+}
@@ -54,12 +54,18 @@ public class SocketBuffedReader implements BuffedReader {
 
     @Override
     public int readBinary(byte[] bytes) throws IOException {
-        for (int i = 0; i < bytes.length; ) {
+        return readBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int i = offset; i < end; ) {
             if (!remaining() && !refill()) {
                 throw new EOFException("Attempt to read after eof.");
             }
 
-            int pending = bytes.length - i;
+            int pending = end - i;
             int fillLength = Math.min(pending, limit - position);
 
             if (fillLength > 0) {
@@ -69,7 +75,7 @@ public class SocketBuffedReader implements BuffedReader {
                 this.position += fillLength;
             }
         }
-        return bytes.length;
+        return length;
     }
 
     private boolean remaining() {
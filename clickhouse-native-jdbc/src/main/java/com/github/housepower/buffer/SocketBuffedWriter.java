@@ -14,35 +14,83 @@
 
 package com.github.housepower.buffer;
 
+import com.github.housepower.settings.ClickHouseDefines;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Socket;
 
+/**
+ * Coalesces writes in a heap buffer, the socket is only written when the buffer is full
+ * or on {@link #flushToTarget(boolean) flushToTarget(true)}.
+ */
 public class SocketBuffedWriter implements BuffedWriter {
 
+    private final int capacity;
+    private final byte[] buf;
     private final OutputStream out;
 
+    private int position;
+
     public SocketBuffedWriter(Socket socket) throws IOException {
-        this.out = socket.getOutputStream();
+        this(socket.getOutputStream(), ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES);
+    }
+
+    SocketBuffedWriter(OutputStream out, int capacity) {
+        this.position = 0;
+        this.capacity = capacity;
+
+        this.out = out;
+        this.buf = new byte[capacity];
     }
 
     @Override
     public void writeBinary(byte byt) throws IOException {
-        out.write(byt);
+        if (position == capacity) {
+            drain();
+        }
+        buf[position++] = byt;
     }
 
     @Override
     public void writeBinary(byte[] bytes) throws IOException {
-        out.write(bytes);
+        writeBinary(bytes, 0, bytes.length);
     }
 
     @Override
     public void writeBinary(byte[] bytes, int offset, int length) throws IOException {
-        out.write(bytes, offset, length);
+        if (length <= capacity - position) {
+            System.arraycopy(bytes, offset, buf, position, length);
+            position += length;
+            return;
+        }
+        // top up the buffer and hand the remainder to the stream directly, avoid copying large arrays twice
+        int num = capacity - position;
+        System.arraycopy(bytes, offset, buf, position, num);
+        position += num;
+        drain();
+
+        int pending = length - num;
+        if (pending >= capacity) {
+            out.write(bytes, offset + num, pending);
+        } else {
+            System.arraycopy(bytes, offset + num, buf, 0, pending);
+            position = pending;
+        }
     }
 
     @Override
     public void flushToTarget(boolean force) throws IOException {
-        out.flush();
+        if (force) {
+            drain();
+            out.flush();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buf, 0, position);
+            position = 0;
+        }
     }
 }
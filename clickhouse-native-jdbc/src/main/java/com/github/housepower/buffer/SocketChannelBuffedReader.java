@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.settings.ClickHouseDefines;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Reads from a non-blocking {@link SocketChannel} into a pooled direct {@link ByteBuffer}.
+ * <p>
+ * Channel reads ignore {@code SO_TIMEOUT}, so the timeout configured on {@link SocketChannel#socket()}
+ * is honored by waiting on a {@link Selector} instead.
+ */
+@SuppressWarnings("RedundantCast")
+public class SocketChannelBuffedReader implements BuffedReader {
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final ByteBufferPool pool;
+    private ByteBuffer buf;
+
+    public SocketChannelBuffedReader(SocketChannel channel) throws IOException {
+        this(channel, ByteBufferPool.DIRECT, ClickHouseDefines.SOCKET_RECV_BUFFER_BYTES);
+    }
+
+    SocketChannelBuffedReader(SocketChannel channel, ByteBufferPool pool, int capacity) throws IOException {
+        this.channel = channel;
+        this.pool = pool;
+        this.selector = Selector.open();
+        this.channel.register(selector, SelectionKey.OP_READ);
+
+        this.buf = pool.acquire(capacity);
+        // nothing to read at the beginning
+        ((Buffer) buf).flip();
+    }
+
+    @Override
+    public int readBinary() throws IOException {
+        if (!buf.hasRemaining()) {
+            refill();
+        }
+        return buf.get() & 0xFF;
+    }
+
+    @Override
+    public int readBinary(byte[] bytes) throws IOException {
+        return readBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int i = offset; i < end; ) {
+            if (!buf.hasRemaining()) {
+                refill();
+            }
+
+            int fillLength = Math.min(end - i, buf.remaining());
+            buf.get(bytes, i, fillLength);
+            i += fillLength;
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        if (buf != null) {
+            pool.release(buf);
+            buf = null;
+        }
+    }
+
+    private void refill() throws IOException {
+        ((Buffer) buf).clear();
+        int n;
+        while ((n = channel.read(buf)) == 0) {
+            awaitReadable();
+        }
+        ((Buffer) buf).flip();
+        if (n < 0) {
+            throw new EOFException("Attempt to read after eof.");
+        }
+    }
+
+    private void awaitReadable() throws IOException {
+        int timeoutMs = channel.socket().getSoTimeout();
+        if (selector.select(timeoutMs) == 0 && timeoutMs > 0) {
+            throw new SocketTimeoutException("Read timed out after " + timeoutMs + "ms");
+        }
+        selector.selectedKeys().clear();
+    }
+}
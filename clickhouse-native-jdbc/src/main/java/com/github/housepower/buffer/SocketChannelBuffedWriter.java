@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.settings.ClickHouseDefines;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Buffers writes in a pooled direct {@link ByteBuffer} and drains it to a non-blocking {@link SocketChannel}
+ * when the buffer is full or on {@link #flushToTarget(boolean) flushToTarget(true)}. Payloads larger than the
+ * buffer are sent together with the buffered bytes by a single gathering write.
+ * <p>
+ * Like the reads of {@link SocketChannelBuffedReader}, a write waiting for a peer that stopped reading fails
+ * after the {@code SO_TIMEOUT} configured on {@link SocketChannel#socket()}.
+ */
+@SuppressWarnings("RedundantCast")
+public class SocketChannelBuffedWriter implements BuffedWriter {
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final ByteBufferPool pool;
+    private ByteBuffer buf;
+
+    public SocketChannelBuffedWriter(SocketChannel channel) throws IOException {
+        this(channel, ByteBufferPool.DIRECT, ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES);
+    }
+
+    SocketChannelBuffedWriter(SocketChannel channel, ByteBufferPool pool, int capacity) throws IOException {
+        this.channel = channel;
+        this.pool = pool;
+        this.selector = Selector.open();
+        this.channel.register(selector, SelectionKey.OP_WRITE);
+
+        this.buf = pool.acquire(capacity);
+    }
+
+    @Override
+    public void writeBinary(byte byt) throws IOException {
+        if (!buf.hasRemaining()) {
+            drain();
+        }
+        buf.put(byt);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes) throws IOException {
+        writeBinary(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes, int offset, int length) throws IOException {
+        if (length >= buf.capacity()) {
+            drain(ByteBuffer.wrap(bytes, offset, length));
+            return;
+        }
+        while (length > 0) {
+            if (!buf.hasRemaining()) {
+                drain();
+            }
+            int num = Math.min(length, buf.remaining());
+            buf.put(bytes, offset, num);
+            offset += num;
+            length -= num;
+        }
+    }
+
+    @Override
+    public void flushToTarget(boolean force) throws IOException {
+        if (force) {
+            drain();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        if (buf != null) {
+            pool.release(buf);
+            buf = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        ((Buffer) buf).flip();
+        while (buf.hasRemaining()) {
+            if (channel.write(buf) == 0) {
+                awaitWritable();
+            }
+        }
+        ((Buffer) buf).clear();
+    }
+
+    // gathering write of the buffered bytes followed by a large payload, without copying the payload
+    private void drain(ByteBuffer payload) throws IOException {
+        ((Buffer) buf).flip();
+        ByteBuffer[] srcs = new ByteBuffer[]{buf, payload};
+        while (payload.hasRemaining()) {
+            if (channel.write(srcs) == 0) {
+                awaitWritable();
+            }
+        }
+        ((Buffer) buf).clear();
+    }
+
+    private void awaitWritable() throws IOException {
+        int timeoutMs = channel.socket().getSoTimeout();
+        if (selector.select(timeoutMs) == 0 && timeoutMs > 0) {
+            throw new SocketTimeoutException("Write timed out after " + timeoutMs + "ms");
+        }
+        selector.selectedKeys().clear();
+    }
+}
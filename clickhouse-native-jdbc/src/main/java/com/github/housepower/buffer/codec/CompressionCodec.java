@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer.codec;
+
+/**
+ * Compresses and decompresses the payload of a native protocol compressed frame.
+ * <p>
+ * Implementations are not required to be thread safe, each reader or writer owns its instances.
+ */
+public interface CompressionCodec {
+
+    /**
+     * The method byte written in the frame header.
+     */
+    int methodByte();
+
+    int maxCompressedLength(int uncompressedLength);
+
+    /**
+     * @return the number of bytes written into {@code output}
+     */
+    int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength);
+
+    /**
+     * @return the number of bytes written into {@code output}
+     */
+    int decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength);
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer.codec;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Compression methods selectable by the {@code compress_method} setting.
+ */
+public enum CompressionMethod {
+    NONE(null, NoneCodec::new),
+    LZ4(null, Lz4Codec::new),
+    // no LZ4HC compressor is available, the frames are LZ4 compatible so use LZ4
+    LZ4HC(null, Lz4Codec::new),
+    ZSTD("ZSTD", ZstdCodec::new);
+
+    public static CompressionMethod of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private final String networkCompressionMethod;
+    private final Supplier<CompressionCodec> codecSupplier;
+
+    CompressionMethod(String networkCompressionMethod, Supplier<CompressionCodec> codecSupplier) {
+        this.networkCompressionMethod = networkCompressionMethod;
+        this.codecSupplier = codecSupplier;
+    }
+
+    /**
+     * The value of server setting {@code network_compression_method} that asks the server to compress
+     * responses with the same method, null if the server default is fine.
+     */
+    public String networkCompressionMethod() {
+        return networkCompressionMethod;
+    }
+
+    public CompressionCodec newCodec() {
+        return codecSupplier.get();
+    }
+
+    public String lowerName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -14,8 +14,14 @@
 
 package com.github.housepower.client;
 
+import com.github.housepower.buffer.BuffedWriter;
+import com.github.housepower.buffer.CompressedBuffedWriter;
+import com.github.housepower.buffer.ParallelCompressedBuffedWriter;
 import com.github.housepower.buffer.SocketBuffedReader;
 import com.github.housepower.buffer.SocketBuffedWriter;
+import com.github.housepower.buffer.SocketChannelBuffedReader;
+import com.github.housepower.buffer.SocketChannelBuffedWriter;
+import com.github.housepower.buffer.codec.CompressionMethod;
 import com.github.housepower.data.Block;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.protocol.*;
@@ -26,14 +32,18 @@ import com.github.housepower.settings.ClickHouseDefines;
 import com.github.housepower.settings.SettingKey;
 import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.stream.QueryListener;
 import com.github.housepower.stream.QueryResult;
 import com.github.housepower.stream.ClickHouseQueryResult;
+import com.github.housepower.stream.ReadAheadQueryResult;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.Map;
@@ -47,38 +57,107 @@ public class NativeClient {
     public static NativeClient connect(ClickHouseConfig configure) throws SQLException {
         try {
             SocketAddress endpoint = new InetSocketAddress(configure.host(), configure.port());
+            boolean compression = configure.compressMethod() != CompressionMethod.NONE;
+            if (configure.useNio()) {
+                SocketChannel channel = SocketChannel.open();
+                Socket socket = channel.socket();
+                configureSocket(socket, configure);
+                // connect in blocking mode to honor connect timeout
+                socket.connect(endpoint, (int) configure.connectTimeout().toMillis());
+                channel.configureBlocking(false);
+
+                BuffedWriter writer = new SocketChannelBuffedWriter(channel);
+                return new NativeClient(socket,
+                        new BinarySerializer(writer, compressWriter(writer, configure)),
+                        new BinaryDeserializer(new SocketChannelBuffedReader(channel), compression),
+                        compression);
+            }
             // TODO support proxy
             Socket socket = new Socket();
-            socket.setTcpNoDelay(true);
-            socket.setSendBufferSize(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES);
-            socket.setReceiveBufferSize(ClickHouseDefines.SOCKET_RECV_BUFFER_BYTES);
-            socket.setKeepAlive(configure.tcpKeepAlive());
+            configureSocket(socket, configure);
             socket.connect(endpoint, (int) configure.connectTimeout().toMillis());
 
+            BuffedWriter writer = new SocketBuffedWriter(socket);
             return new NativeClient(socket,
-                    new BinarySerializer(new SocketBuffedWriter(socket), true),
-                    new BinaryDeserializer(new SocketBuffedReader(socket), true));
+                    new BinarySerializer(writer, compressWriter(writer, configure)),
+                    new BinaryDeserializer(new SocketBuffedReader(socket), compression),
+                    compression);
         } catch (IOException ex) {
             throw new SQLException(ex.getMessage(), ex);
         }
     }
 
+    @Nullable
+    private static BuffedWriter compressWriter(BuffedWriter writer, ClickHouseConfig configure) {
+        CompressionMethod compressMethod = configure.compressMethod();
+        if (compressMethod == CompressionMethod.NONE) {
+            return null;
+        }
+        if (configure.compressParallelism() > 1) {
+            return new ParallelCompressedBuffedWriter(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES, writer, configure);
+        }
+        return new CompressedBuffedWriter(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES, writer, configure);
+    }
+
+    private static void configureSocket(Socket socket, ClickHouseConfig configure) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setSendBufferSize(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES);
+        socket.setReceiveBufferSize(ClickHouseDefines.SOCKET_RECV_BUFFER_BYTES);
+        socket.setKeepAlive(configure.tcpKeepAlive());
+    }
+
     private final Socket socket;
     private final SocketAddress address;
     private final BinarySerializer serializer;
     private final BinaryDeserializer deserializer;
+    private final boolean compression;
+    // the result still reading from the socket on a background thread, if any
+    private volatile ReadAheadQueryResult readAhead;
+    // the last query result, its remaining responses are drained before the next request
+    private volatile ClickHouseQueryResult pending;
+    // set once an I/O error left the stream in an unknown position
+    private volatile boolean broken;
+    // set once a response of the last query has been read
+    private volatile boolean responded;
+    private volatile long lastActiveNanos = System.nanoTime();
 
     public NativeClient(Socket socket, BinarySerializer serializer, BinaryDeserializer deserializer) {
+        this(socket, serializer, deserializer, true);
+    }
+
+    public NativeClient(Socket socket, BinarySerializer serializer, BinaryDeserializer deserializer, boolean compression) {
         this.socket = socket;
         this.address = socket.getLocalSocketAddress();
         this.serializer = serializer;
         this.deserializer = deserializer;
+        this.compression = compression;
     }
 
     public SocketAddress address() {
         return address;
     }
 
+    /**
+     * @return true if the socket was closed or an I/O error happened, the connection can't be reused
+     */
+    public boolean isBroken() {
+        return broken || socket.isClosed();
+    }
+
+    /**
+     * @return true if a response of the last query has been received, the server may have run the query then
+     */
+    public boolean hasResponse() {
+        return responded;
+    }
+
+    /**
+     * @return time since the last successful read or write on this connection
+     */
+    public Duration idleTime() {
+        return Duration.ofNanos(System.nanoTime() - lastActiveNanos);
+    }
+
     public boolean ping(Duration soTimeout, NativeContext.ServerContext info) {
         try {
             sendRequest(PingRequest.INSTANCE);
@@ -88,7 +167,6 @@ public class NativeClient {
                 if (response instanceof PongResponse)
                     return true;
 
-                // TODO there are some previous response we haven't consumed
                 LOG.debug("expect pong, skip response: {}", response.type());
             }
         } catch (SQLException e) {
@@ -133,7 +211,30 @@ public class NativeClient {
     }
 
     public QueryResult receiveQuery(Duration soTimeout, NativeContext.ServerContext info) {
-        return new ClickHouseQueryResult(() -> receiveResponse(soTimeout, info));
+        return receiveQuery(soTimeout, info, 0);
+    }
+
+    /**
+     * @param readAheadBlocks blocks read ahead on a background thread, 0 to read on the consuming thread
+     */
+    public QueryResult receiveQuery(Duration soTimeout, NativeContext.ServerContext info, int readAheadBlocks) {
+        return receiveQuery(soTimeout, info, readAheadBlocks, ClickHouseDefines.DEFAULT_READ_AHEAD_MAX_BYTES, null);
+    }
+
+    /**
+     * @param readAheadMaxBytes estimated decoded size of the blocks read ahead
+     * @param listener          receives the progress, profile info, totals and extremes of the query, null to drop them
+     */
+    public QueryResult receiveQuery(Duration soTimeout, NativeContext.ServerContext info, int readAheadBlocks,
+                                    long readAheadMaxBytes, @Nullable QueryListener listener) {
+        ClickHouseQueryResult result = new ClickHouseQueryResult(() -> receiveResponse(soTimeout, info, false),
+                () -> receiveResponse(soTimeout, info, true), this::sendCancel, listener);
+        pending = result;
+        if (readAheadBlocks <= 0) {
+            return result;
+        }
+        readAhead = new ReadAheadQueryResult(result, readAheadBlocks, readAheadMaxBytes);
+        return readAhead;
     }
 
     public void silentDisconnect() {
@@ -151,8 +252,19 @@ public class NativeClient {
                 return;
             }
             LOG.trace("flush and close socket");
-            serializer.flushToTarget(true);
-            socket.close();
+            try {
+                serializer.flushToTarget(true);
+                socket.close();
+            } finally {
+                // the closed socket fails the background reader, wait for it before releasing the buffers
+                try {
+                    finishReadAhead();
+                } catch (SQLException ex) {
+                    LOG.debug("read ahead stopped with exception.", ex);
+                }
+                serializer.close();
+                deserializer.close();
+            }
         } catch (IOException ex) {
             throw new SQLException(ex.getMessage(), ex);
         }
@@ -160,26 +272,81 @@ public class NativeClient {
 
     private void sendQuery(String id, int stage, NativeContext.ClientContext info, String query,
                            Map<SettingKey, Serializable> settings) throws SQLException {
-        sendRequest(new QueryRequest(id, info, stage, true, query, settings));
+        sendRequest(new QueryRequest(id, info, stage, compression, query, settings));
+        responded = false;
+    }
+
+    /**
+     * Ask the server to stop the running query. Safe to call from another thread while the result is being read,
+     * the remaining responses up to the end of stream are still drained before the next request.
+     */
+    public void sendCancel() throws SQLException {
+        writeRequest(CancelRequest.INSTANCE);
     }
 
     private void sendRequest(Request request) throws SQLException {
         try {
-            LOG.trace("send request: {}", request.type());
-            request.writeTo(serializer);
-            serializer.flushToTarget(true);
+            finishReadAhead();
+            finishPending();
+        } catch (SQLException ex) {
+            // the responses of the previous query are left on the wire, the connection can't be used anymore
+            broken = true;
+            throw new SQLException("Failed to finish the previous query before " + request.type() + ": "
+                    + ex.getMessage(), ex);
+        }
+        writeRequest(request);
+    }
+
+    private void writeRequest(Request request) throws SQLException {
+        try {
+            // a cancel may be written by another thread
+            synchronized (serializer) {
+                LOG.trace("send request: {}", request.type());
+                request.writeTo(serializer);
+                serializer.flushToTarget(true);
+            }
+            lastActiveNanos = System.nanoTime();
         } catch (IOException ex) {
+            broken = true;
             throw new SQLException(ex.getMessage(), ex);
         }
     }
 
+    // cancel the previous query if the caller didn't consume it, and skip its remaining responses
+    private void finishPending() throws SQLException {
+        ClickHouseQueryResult result = pending;
+        if (result == null) {
+            return;
+        }
+        pending = null;
+        result.cancel();
+    }
+
+    // cancel the previous query and drop its unconsumed blocks, the connection is reusable once its reader stopped
+    private void finishReadAhead() throws SQLException {
+        ReadAheadQueryResult result = readAhead;
+        if (result == null) {
+            return;
+        }
+        readAhead = null;
+        result.cancel();
+    }
+
     private Response receiveResponse(Duration soTimeout, NativeContext.ServerContext info) throws SQLException {
+        return receiveResponse(soTimeout, info, false);
+    }
+
+    private Response receiveResponse(Duration soTimeout, NativeContext.ServerContext info, boolean skipData)
+            throws SQLException {
         try {
             socket.setSoTimeout(((int) soTimeout.toMillis()));
-            Response response = Response.readFrom(deserializer, info);
+            Response response = Response.readFrom(deserializer, info, skipData);
+            lastActiveNanos = System.nanoTime();
+            responded = true;
             LOG.trace("recv response: {}", response.type());
             return response;
         } catch (IOException ex) {
+            broken = true;
             throw new SQLException(ex.getMessage(), ex);
         }
     }
@@ -14,10 +14,14 @@
 
 package com.github.housepower.client;
 
+import com.github.housepower.data.BlockSchema;
+import com.github.housepower.data.IDataType;
+import com.github.housepower.misc.ConcurrentBoundedCache;
 import com.github.housepower.serde.BinarySerializer;
 import com.github.housepower.settings.ClickHouseConfig;
 import com.github.housepower.settings.ClickHouseDefines;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.time.ZoneId;
 
@@ -87,6 +91,11 @@ public class NativeContext {
         private final ZoneId timeZone;
         private final String displayName;
         private final ClickHouseConfig configure;
+        // schema of the last block read on this connection, reused while the columns don't change
+        private volatile BlockSchema lastSchema;
+        // parsed data types keyed by type name, they capture time zone and charset of this server
+        private final ConcurrentBoundedCache<String, IDataType<?, ?>> dataTypeCache =
+                new ConcurrentBoundedCache<>(ClickHouseDefines.DATA_TYPE_CACHE_SIZE);
 
         public ServerContext(long majorVersion, long minorVersion, long reversion,
                              ClickHouseConfig configure,
@@ -126,5 +135,18 @@ public class NativeContext {
         public ClickHouseConfig getConfigure() {
             return configure;
         }
+
+        @Nullable
+        public BlockSchema lastSchema() {
+            return lastSchema;
+        }
+
+        public void lastSchema(BlockSchema schema) {
+            this.lastSchema = schema;
+        }
+
+        public ConcurrentBoundedCache<String, IDataType<?, ?>> dataTypeCache() {
+            return dataTypeCache;
+        }
     }
 }
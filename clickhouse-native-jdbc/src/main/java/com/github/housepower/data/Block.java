@@ -16,17 +16,20 @@ package com.github.housepower.data;
 
 import com.github.housepower.client.NativeContext;
 import com.github.housepower.data.BlockSettings.Setting;
+import com.github.housepower.data.type.BaseDataTypeFloat;
+import com.github.housepower.data.type.BaseDataTypeInt;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
 
 public class Block {
 
+    private static final Object LONG_VALUE = new Object();
+    private static final Object DOUBLE_VALUE = new Object();
+
     public static Block readFrom(BinaryDeserializer deserializer,
                                  NativeContext.ServerContext serverContext) throws IOException, SQLException {
         BlockSettings info = BlockSettings.readFrom(deserializer);
@@ -35,25 +38,70 @@ public class Block {
         int rowCnt = (int) deserializer.readVarInt();
 
         IColumn[] columns = new IColumn[columnCnt];
+        boolean lazy = rowCnt > 0 && serverContext.getConfigure().lazyDecode();
+
+        // the blocks of a stream share the schema of its header, only check that it didn't change
+        BlockSchema schema = serverContext.lastSchema();
+        boolean reused = schema != null && schema.columnCnt() == columnCnt;
+        String[] names = new String[columnCnt];
+        String[] typeNames = new String[columnCnt];
+        IDataType<?, ?>[] types = new IDataType<?, ?>[columnCnt];
 
         for (int i = 0; i < columnCnt; i++) {
             String name = deserializer.readUTF8StringBinary();
             String type = deserializer.readUTF8StringBinary();
 
-            IDataType dataType = DataTypeFactory.get(type, serverContext);
-            Object[] arr = dataType.deserializeBinaryBulk(rowCnt, deserializer);
-            columns[i] = ColumnFactory.createColumn(name, dataType, arr);
+            reused = reused && schema.matches(i, name, type);
+            IDataType<?, ?> dataType = reused ? schema.type(i) : DataTypeFactory.get(type, serverContext);
+            names[i] = name;
+            typeNames[i] = type;
+            types[i] = dataType;
+            columns[i] = lazy
+                    ? ColumnFactory.readLazyColumn(name, dataType, rowCnt, deserializer)
+                    : ColumnFactory.readColumn(name, dataType, rowCnt, deserializer);
+        }
+
+        if (!reused) {
+            schema = new BlockSchema(names, typeNames, types);
+            serverContext.lastSchema(schema);
         }
+        return new Block(rowCnt, columns, info, schema);
+    }
+
+    /**
+     * Read past a block, only its framing and column sizes are parsed and no column is materialized.
+     *
+     * @return the rows of the skipped block
+     */
+    public static int skipFrom(BinaryDeserializer deserializer,
+                               NativeContext.ServerContext serverContext) throws IOException, SQLException {
+        BlockSettings.readFrom(deserializer);
+
+        int columnCnt = (int) deserializer.readVarInt();
+        int rowCnt = (int) deserializer.readVarInt();
+
+        BlockSchema schema = serverContext.lastSchema();
+        boolean reused = schema != null && schema.columnCnt() == columnCnt;
+        for (int i = 0; i < columnCnt; i++) {
+            String name = deserializer.readUTF8StringBinary();
+            String type = deserializer.readUTF8StringBinary();
 
-        return new Block(rowCnt, columns, info);
+            reused = reused && schema.matches(i, name, type);
+            IDataType<?, ?> dataType = reused ? schema.type(i) : DataTypeFactory.get(type, serverContext);
+            dataType.skipBinaryBulk(rowCnt, deserializer);
+        }
+        return rowCnt;
     }
 
     private final IColumn[] columns;
     private final BlockSettings settings;
-    // position start with 1
-    private final Map<String, Integer> nameAndPositions;
+    private final BlockSchema schema;
     private final Object[] rowData;
-    private final int[] placeholderIndexes;
+    // unboxed values of the current row, the rowData slot holds LONG_VALUE or DOUBLE_VALUE
+    private final long[] rowLongs;
+    private final double[] rowDoubles;
+    // only used by inserts, allocated on first use
+    private int[] placeholderIndexes;
     private int rowCnt;
 
     public Block() {
@@ -65,17 +113,18 @@ public class Block {
     }
 
     public Block(int rowCnt, IColumn[] columns, BlockSettings settings) {
+        this(rowCnt, columns, settings, BlockSchema.of(columns));
+    }
+
+    public Block(int rowCnt, IColumn[] columns, BlockSettings settings, BlockSchema schema) {
         this.rowCnt = rowCnt;
         this.columns = columns;
         this.settings = settings;
 
         this.rowData = new Object[columns.length];
-        this.nameAndPositions = new HashMap<>();
-        this.placeholderIndexes = new int[columns.length];
-        for (int i = 0; i < columns.length; i++) {
-            nameAndPositions.put(columns[i].name(), i + 1);
-            placeholderIndexes[i] = i;
-        }
+        this.rowLongs = new long[columns.length];
+        this.rowDoubles = new double[columns.length];
+        this.schema = schema;
     }
 
     public int rowCnt() {
@@ -86,15 +135,26 @@ public class Block {
         return columns.length;
     }
 
+    public BlockSchema schema() {
+        return schema;
+    }
+
     public void appendRow() throws SQLException {
         int i = 0;
         try {
             for (; i < columns.length; i++) {
-                columns[i].write(rowData[i]);
+                Object value = rowData[i];
+                if (value == LONG_VALUE) {
+                    columns[i].appendLong(rowLongs[i]);
+                } else if (value == DOUBLE_VALUE) {
+                    columns[i].appendDouble(rowDoubles[i]);
+                } else {
+                    columns[i].write(value);
+                }
             }
             rowCnt++;
         } catch (IOException | ClassCastException e) {
-            throw new SQLException("Exception processing value " + rowData[i] + " for column: " + columns[i].name(), e);
+            throw new SQLException("Exception processing value " + getObject(i) + " for column: " + columns[i].name(), e);
         }
     }
 
@@ -102,11 +162,38 @@ public class Block {
         rowData[columnIdx] = object;
     }
 
+    /**
+     * Stage a value for {@link IColumn#appendLong(long)}, the column type must be a {@link BaseDataTypeInt}.
+     */
+    public void setLong(int columnIdx, long value) {
+        rowLongs[columnIdx] = value;
+        rowData[columnIdx] = LONG_VALUE;
+    }
+
+    /**
+     * Stage a value for {@link IColumn#appendDouble(double)}, the column type must be a {@link BaseDataTypeFloat}.
+     */
+    public void setDouble(int columnIdx, double value) {
+        rowDoubles[columnIdx] = value;
+        rowData[columnIdx] = DOUBLE_VALUE;
+    }
+
     public int paramIdx2ColumnIdx(int paramIdx) {
-        return placeholderIndexes[paramIdx];
+        return placeholderIndexes()[paramIdx];
+    }
+
+    private int[] placeholderIndexes() {
+        if (placeholderIndexes == null) {
+            placeholderIndexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                placeholderIndexes[i] = i;
+            }
+        }
+        return placeholderIndexes;
     }
 
     public void incPlaceholderIndexes(int columnIdx) {
+        int[] placeholderIndexes = placeholderIndexes();
         for (int i = columnIdx; i < placeholderIndexes.length; i++) {
             placeholderIndexes[i] += 1;
         }
@@ -133,14 +220,21 @@ public class Block {
 
     // position start with 1
     public int getPositionByName(String columnName) throws SQLException {
-        Validate.isTrue(nameAndPositions.containsKey(columnName), "Column '" + columnName + "' does not exist");
-        return nameAndPositions.get(columnName);
+        Integer position = schema.position(columnName);
+        Validate.isTrue(position != null, "Column '" + columnName + "' does not exist");
+        return position;
     }
 
     public Object getObject(int columnIdx) throws SQLException {
         Validate.isTrue(columnIdx < columns.length,
                 "Position " + columnIdx +
                         " is out of bound in Block.getByPosition, max position = " + (columns.length - 1));
+        if (rowData[columnIdx] == LONG_VALUE) {
+            return rowLongs[columnIdx];
+        }
+        if (rowData[columnIdx] == DOUBLE_VALUE) {
+            return rowDoubles[columnIdx];
+        }
         return rowData[columnIdx];
     }
 
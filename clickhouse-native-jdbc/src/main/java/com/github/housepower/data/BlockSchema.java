@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column names and types of a block, resolved once and shared by the blocks of the same shape.
+ */
+public class BlockSchema {
+
+    public static BlockSchema of(IColumn[] columns) {
+        String[] names = new String[columns.length];
+        String[] typeNames = new String[columns.length];
+        IDataType<?, ?>[] types = new IDataType<?, ?>[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].name();
+            types[i] = columns[i].type();
+            typeNames[i] = types[i].name();
+        }
+        return new BlockSchema(names, typeNames, types);
+    }
+
+    private final String[] names;
+    // type names as sent by the server, compared without resolving them again
+    private final String[] typeNames;
+    private final IDataType<?, ?>[] types;
+    // position start with 1
+    private final Map<String, Integer> nameAndPositions;
+
+    public BlockSchema(String[] names, String[] typeNames, IDataType<?, ?>[] types) {
+        this.names = names;
+        this.typeNames = typeNames;
+        this.types = types;
+        this.nameAndPositions = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            nameAndPositions.put(names[i], i + 1);
+        }
+    }
+
+    public int columnCnt() {
+        return names.length;
+    }
+
+    public String name(int idx) {
+        return names[idx];
+    }
+
+    public IDataType<?, ?> type(int idx) {
+        return types[idx];
+    }
+
+    /**
+     * @return position start with 1, null if there is no such column
+     */
+    public Integer position(String name) {
+        return nameAndPositions.get(name);
+    }
+
+    public boolean matches(int idx, String name, String typeName) {
+        return idx < names.length && names[idx].equals(name) && typeNames[idx].equals(typeName);
+    }
+}
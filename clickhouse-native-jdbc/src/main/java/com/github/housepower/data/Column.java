@@ -14,6 +14,9 @@
 
 package com.github.housepower.data;
 
+import com.github.housepower.data.type.BaseDataTypeFloat;
+import com.github.housepower.data.type.BaseDataTypeInt;
+import com.github.housepower.misc.Validate;
 import com.github.housepower.serde.BinarySerializer;
 
 import java.io.IOException;
@@ -31,6 +34,18 @@ public class Column extends AbstractColumn {
         type().serializeBinary(object, buffer.column);
     }
 
+    @Override
+    public void appendLong(long value) throws IOException, SQLException {
+        Validate.isTrue(type instanceof BaseDataTypeInt, "appendLong on column: " + name);
+        ((BaseDataTypeInt<?, ?>) type).serializeLong(value, buffer.column);
+    }
+
+    @Override
+    public void appendDouble(double value) throws IOException, SQLException {
+        Validate.isTrue(type instanceof BaseDataTypeFloat, "appendDouble on column: " + name);
+        ((BaseDataTypeFloat<?, ?>) type).serializeDouble(value, buffer.column);
+    }
+
     @Override
     public void flushToSerializer(BinarySerializer serializer, boolean now) throws IOException, SQLException {
         if (isExported()) {
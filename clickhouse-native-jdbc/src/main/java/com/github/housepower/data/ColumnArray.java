@@ -16,22 +16,22 @@ package com.github.housepower.data;
 
 import com.github.housepower.jdbc.ClickHouseArray;
 import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.misc.LongArrayList;
 import com.github.housepower.serde.BinarySerializer;
 
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ColumnArray extends AbstractColumn {
 
-    private final List<Long> offsets;
+    private final LongArrayList offsets;
+    private long lastOffset;
     // data represents nested column in ColumnArray
     private final IColumn data;
 
     public ColumnArray(String name, DataTypeArray type, Object[] values) {
         super(name, type, values);
-        offsets = new ArrayList<>();
+        offsets = new LongArrayList();
         data = ColumnFactory.createColumn(null, type.getElemDataType(), null);
     }
 
@@ -39,7 +39,8 @@ public class ColumnArray extends AbstractColumn {
     public void write(Object object) throws IOException, SQLException {
         Object[] arr = ((ClickHouseArray) object).getArray();
 
-        offsets.add(offsets.isEmpty() ? arr.length : offsets.get((offsets.size() - 1)) + arr.length);
+        lastOffset += arr.length;
+        offsets.add(lastOffset);
         for (Object field : arr) {
             data.write(field);
         }
@@ -61,9 +62,9 @@ public class ColumnArray extends AbstractColumn {
     }
 
     public void flushOffsets(BinarySerializer serializer) throws IOException {
-        for (long offsetList : offsets) {
-            serializer.writeLong(offsetList);
-        }
+        offsets.writeTo(serializer);
+        offsets.clear();
+        lastOffset = 0;
     }
 
     @Override
@@ -75,6 +76,7 @@ public class ColumnArray extends AbstractColumn {
     @Override
     public void clear() {
         offsets.clear();
+        lastOffset = 0;
         data.clear();
     }
 }
@@ -14,9 +14,16 @@
 
 package com.github.housepower.data;
 
+import com.github.housepower.data.type.*;
 import com.github.housepower.data.type.complex.DataTypeArray;
 import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.data.type.complex.DataTypeString;
 import com.github.housepower.data.type.complex.DataTypeTuple;
+import com.github.housepower.serde.BinaryDeserializer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
 
 public class ColumnFactory {
 
@@ -32,4 +39,112 @@ public class ColumnFactory {
 
         return new Column(name, type, values);
     }
+
+    /**
+     * Read the values of a column, fixed-width numeric types are kept in primitive arrays.
+     * Unsigned types are widened, so the boxed values keep the java type of the data type.
+     * String and Nullable(String) values are kept in a byte slab.
+     */
+    public static IColumn readColumn(String name, IDataType<?, ?> type, int rows,
+                                     BinaryDeserializer deserializer) throws IOException, SQLException {
+        if (type instanceof DataTypeInt8) {
+            byte[] data = new byte[rows];
+            deserializer.readBytes(data, 0, rows);
+            return new ColumnByte(name, type, data);
+        }
+        if (type instanceof DataTypeUInt8) {
+            byte[] raw = new byte[rows];
+            deserializer.readBytes(raw, 0, rows);
+            short[] data = new short[rows];
+            for (int i = 0; i < rows; i++) {
+                data[i] = (short) (raw[i] & 0xff);
+            }
+            return new ColumnShort(name, type, data);
+        }
+        if (type instanceof DataTypeInt16) {
+            short[] data = new short[rows];
+            deserializer.readShorts(data, 0, rows);
+            return new ColumnShort(name, type, data);
+        }
+        if (type instanceof DataTypeUInt16) {
+            short[] raw = new short[rows];
+            deserializer.readShorts(raw, 0, rows);
+            int[] data = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                data[i] = raw[i] & 0xffff;
+            }
+            return new ColumnInt(name, type, data);
+        }
+        if (type instanceof DataTypeInt32) {
+            int[] data = new int[rows];
+            deserializer.readInts(data, 0, rows);
+            return new ColumnInt(name, type, data);
+        }
+        if (type instanceof DataTypeUInt32 || type instanceof DataTypeIPv4) {
+            int[] raw = new int[rows];
+            deserializer.readInts(raw, 0, rows);
+            long[] data = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                data[i] = raw[i] & 0xffffffffL;
+            }
+            return new ColumnLong(name, type, data);
+        }
+        if (type instanceof DataTypeInt64) {
+            long[] data = new long[rows];
+            deserializer.readLongs(data, 0, rows);
+            return new ColumnLong(name, type, data);
+        }
+        if (type instanceof DataTypeFloat32) {
+            float[] data = new float[rows];
+            deserializer.readFloats(data, 0, rows);
+            return new ColumnFloat(name, type, data);
+        }
+        if (type instanceof DataTypeFloat64) {
+            double[] data = new double[rows];
+            deserializer.readDoubles(data, 0, rows);
+            return new ColumnDouble(name, type, data);
+        }
+        if (type instanceof DataTypeString) {
+            return readStringColumn(name, (DataTypeString) type, rows, deserializer);
+        }
+        if (type instanceof DataTypeNullable && ((DataTypeNullable) type).getNestedDataType() instanceof DataTypeString) {
+            byte[] nullMap = new byte[rows];
+            deserializer.readBytes(nullMap, 0, rows);
+            DataTypeString nestedType = (DataTypeString) ((DataTypeNullable) type).getNestedDataType();
+            return new ColumnNullableString(name, type, nullMap, readStringColumn(null, nestedType, rows, deserializer));
+        }
+        return createColumn(name, type, type.deserializeBinaryBulk(rows, deserializer));
+    }
+
+    /**
+     * Like {@link #readColumn}, but fixed-width columns are only copied and decoded on first access.
+     * String columns are read into a slab, which is already decoded on access.
+     */
+    public static IColumn readLazyColumn(String name, IDataType<?, ?> type, int rows,
+                                         BinaryDeserializer deserializer) throws IOException, SQLException {
+        int size = type.fixedByteSize();
+        if (size < 0) {
+            return readColumn(name, type, rows, deserializer);
+        }
+        byte[] raw = new byte[rows * size];
+        deserializer.readBytes(raw, 0, raw.length);
+        return new LazyColumn(name, type, rows, raw);
+    }
+
+    private static ColumnString readStringColumn(String name, DataTypeString type, int rows,
+                                            BinaryDeserializer deserializer) throws IOException {
+        int[] offsets = new int[rows + 1];
+        byte[] slab = new byte[Math.max(16, rows * 8)];
+        int position = 0;
+        for (int i = 0; i < rows; i++) {
+            int length = (int) deserializer.readVarInt();
+            if (position + length > slab.length) {
+                slab = Arrays.copyOf(slab, Math.max(slab.length * 2, position + length));
+            }
+            deserializer.readBytes(slab, position, length);
+            position += length;
+            offsets[i + 1] = position;
+        }
+        return new ColumnString(name, type, type.charset(), slab, offsets);
+    }
 }
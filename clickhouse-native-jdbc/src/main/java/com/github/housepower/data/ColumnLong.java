@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+/**
+ * Column holding the values read from the server in a {@code long[]}, without boxing them.
+ */
+public class ColumnLong extends Column {
+
+    private long[] data;
+
+    public ColumnLong(String name, IDataType<?, ?> type, long[] data) {
+        super(name, type, null);
+        this.data = data;
+    }
+
+    @Override
+    public Object value(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public byte byteValue(int idx) {
+        return (byte) data[idx];
+    }
+
+    @Override
+    public short shortValue(int idx) {
+        return (short) data[idx];
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return (int) data[idx];
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return data[idx];
+    }
+
+    @Override
+    public void clear() {
+        data = new long[0];
+    }
+}
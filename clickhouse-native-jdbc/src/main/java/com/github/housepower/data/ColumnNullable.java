@@ -15,23 +15,22 @@
 package com.github.housepower.data;
 
 import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.misc.ByteArrayList;
 import com.github.housepower.serde.BinarySerializer;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ColumnNullable extends AbstractColumn {
 
-    private final List<Byte> nullableSign;
+    private final ByteArrayList nullableSign;
     // data represents nested column in ColumnArray
     private final IColumn data;
 
     public ColumnNullable(String name, DataTypeNullable type, Object[] values) {
         super(name, type, values);
-        nullableSign = new ArrayList<>();
+        nullableSign = new ByteArrayList();
         data = ColumnFactory.createColumn(null, type.getNestedDataType(), null);
     }
 
@@ -53,9 +52,8 @@ public class ColumnNullable extends AbstractColumn {
             serializer.writeUTF8StringBinary(type.name());
         }
 
-        for (byte sign : nullableSign) {
-            serializer.writeByte(sign);
-        }
+        nullableSign.writeTo(serializer);
+        nullableSign.clear();
 
         if (immediate)
             buffer.writeTo(serializer);
@@ -66,4 +64,11 @@ public class ColumnNullable extends AbstractColumn {
         super.setColumnWriterBuffer(buffer);
         data.setColumnWriterBuffer(buffer);
     }
+
+    @Override
+    public void clear() {
+        super.clear();
+        nullableSign.clear();
+        data.clear();
+    }
 }
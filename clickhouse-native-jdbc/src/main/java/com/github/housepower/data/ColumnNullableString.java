@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Column holding the Nullable(String) values read from the server, a null map over a {@link ColumnString} slab.
+ */
+public class ColumnNullableString extends Column {
+
+    // 1 for a null row, whose slab entry is an empty string
+    private byte[] nullMap;
+    private final ColumnString data;
+
+    public ColumnNullableString(String name, IDataType<?, ?> type, byte[] nullMap, ColumnString data) {
+        super(name, type, null);
+        this.nullMap = nullMap;
+        this.data = data;
+    }
+
+    @Override
+    public Object value(int idx) {
+        return isNull(idx) ? null : data.value(idx);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return nullMap[idx] == 1;
+    }
+
+    @Override
+    public ByteBuffer bytesView(int idx) {
+        return isNull(idx) ? null : data.bytesView(idx);
+    }
+
+    @Override
+    public void clear() {
+        nullMap = new byte[0];
+        data.clear();
+    }
+}
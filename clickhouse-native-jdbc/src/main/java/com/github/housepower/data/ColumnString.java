@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Column holding the String values read from the server as one byte slab, rows are decoded on access.
+ */
+public class ColumnString extends Column {
+
+    private final Charset charset;
+    private byte[] slab;
+    // row i spans [offsets[i], offsets[i + 1]) of the slab
+    private int[] offsets;
+
+    public ColumnString(String name, IDataType<?, ?> type, Charset charset, byte[] slab, int[] offsets) {
+        super(name, type, null);
+        this.charset = charset;
+        this.slab = slab;
+        this.offsets = offsets;
+    }
+
+    @Override
+    public Object value(int idx) {
+        return new String(slab, offsets[idx], offsets[idx + 1] - offsets[idx], charset);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return false;
+    }
+
+    @Override
+    public ByteBuffer bytesView(int idx) {
+        return ByteBuffer.wrap(slab, offsets[idx], offsets[idx + 1] - offsets[idx]).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public void clear() {
+        slab = new byte[0];
+        offsets = new int[1];
+    }
+}
@@ -15,11 +15,11 @@
 package com.github.housepower.data;
 
 import com.github.housepower.buffer.ByteArrayWriter;
+import com.github.housepower.buffer.ByteBufferPool;
 import com.github.housepower.serde.BinarySerializer;
 import com.github.housepower.settings.ClickHouseDefines;
 
 import java.io.IOException;
-import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
 public class ColumnWriterBuffer {
@@ -29,19 +29,20 @@ public class ColumnWriterBuffer {
     public BinarySerializer column;
 
     public ColumnWriterBuffer() {
-        this.columnWriter = new ByteArrayWriter(ClickHouseDefines.COLUMN_BUFFER_BYTES);
+        this(ClickHouseDefines.COLUMN_BUFFER_MIN_BYTES, ClickHouseDefines.COLUMN_BUFFER_BYTES, ByteBufferPool.HEAP);
+    }
+
+    ColumnWriterBuffer(int minChunkBytes, int maxChunkBytes, ByteBufferPool pool) {
+        this.columnWriter = new ByteArrayWriter(minChunkBytes, maxChunkBytes, pool);
         this.column = new BinarySerializer(columnWriter, false);
     }
 
-    @SuppressWarnings("RedundantCast")
     public void writeTo(BinarySerializer serializer) throws IOException {
+        // chunks are heap buffers, hand over the written part of each backing array in bulk
         for (ByteBuffer buffer : columnWriter.getBufferList()) {
-            // upcast is necessary, see detail at:
-            // https://bitbucket.org/ijabz/jaudiotagger/issues/313/java-8-javalangnosuchmethoderror
-            ((Buffer) buffer).flip();
-            while (buffer.hasRemaining()) {
-                serializer.writeByte(buffer.get());
-            }
+            serializer.writeBytes(buffer.array(), buffer.arrayOffset(), buffer.position());
         }
+        // the content has been written, recycle the chunks for the next block
+        columnWriter.release();
     }
 }
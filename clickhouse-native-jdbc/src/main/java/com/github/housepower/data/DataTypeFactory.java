@@ -33,18 +33,15 @@ import com.github.housepower.data.type.complex.DataTypeNothing;
 import com.github.housepower.data.type.complex.DataTypeNullable;
 import com.github.housepower.data.type.complex.DataTypeString;
 import com.github.housepower.data.type.complex.DataTypeTuple;
-import com.github.housepower.misc.LRUCache;
+import com.github.housepower.misc.ConcurrentBoundedCache;
 import com.github.housepower.misc.SQLLexer;
 import com.github.housepower.misc.Validate;
-import com.github.housepower.settings.ClickHouseDefines;
 
 public class DataTypeFactory {
-    private static final LRUCache<String, IDataType<?, ?>> DATA_TYPE_CACHE = new LRUCache<>(ClickHouseDefines.DATA_TYPE_CACHE_SIZE);
-
     public static IDataType<?, ?> get(String type, NativeContext.ServerContext serverContext) throws SQLException {
-        IDataType<?, ?> dataType = DATA_TYPE_CACHE.get(type);
+        ConcurrentBoundedCache<String, IDataType<?, ?>> cache = serverContext.dataTypeCache();
+        IDataType<?, ?> dataType = cache.get(type);
         if (dataType != null) {
-            DATA_TYPE_CACHE.put(type, dataType);
             return dataType;
         }
 
@@ -52,8 +49,7 @@ public class DataTypeFactory {
         dataType = get(lexer, serverContext);
         Validate.isTrue(lexer.eof());
 
-        DATA_TYPE_CACHE.put(type, dataType);
-        return dataType;
+        return cache.putIfAbsent(type, dataType);
     }
 
     private static final Map<String, IDataType<?, ?>> dataTypes = initialDataTypes();
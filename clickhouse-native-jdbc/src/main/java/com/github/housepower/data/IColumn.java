@@ -14,10 +14,15 @@
 
 package com.github.housepower.data;
 
+import com.github.housepower.data.type.BaseDataTypeFloat;
+import com.github.housepower.data.type.BaseDataTypeInt;
 import com.github.housepower.serde.BinarySerializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 
 public interface IColumn {
 
@@ -29,8 +34,67 @@ public interface IColumn {
 
     Object value(int idx);
 
+    default boolean isNull(int idx) {
+        return value(idx) == null;
+    }
+
+    /**
+     * Read-only view of the raw bytes of a String value, without decoding or copying them.
+     * Null if the column doesn't keep the raw bytes.
+     */
+    @Nullable
+    default ByteBuffer bytesView(int idx) {
+        return null;
+    }
+
+    // primitive accessors, columns backed by primitive arrays override them to avoid boxing
+
+    default byte byteValue(int idx) {
+        Object v = value(idx);
+        return v == null ? 0 : ((Number) v).byteValue();
+    }
+
+    default short shortValue(int idx) {
+        Object v = value(idx);
+        return v == null ? 0 : ((Number) v).shortValue();
+    }
+
+    default int intValue(int idx) {
+        Object v = value(idx);
+        return v == null ? 0 : ((Number) v).intValue();
+    }
+
+    default long longValue(int idx) {
+        Object v = value(idx);
+        return v == null ? 0 : ((Number) v).longValue();
+    }
+
+    default float floatValue(int idx) {
+        Object v = value(idx);
+        return v == null ? 0 : ((Number) v).floatValue();
+    }
+
+    default double doubleValue(int idx) {
+        Object v = value(idx);
+        return v == null ? 0 : ((Number) v).doubleValue();
+    }
+
     void write(Object object) throws IOException, SQLException;
 
+    /**
+     * Typed appender, only supported when {@link #type()} is a {@link BaseDataTypeInt}.
+     */
+    default void appendLong(long value) throws IOException, SQLException {
+        throw new SQLFeatureNotSupportedException("appendLong on column: " + name());
+    }
+
+    /**
+     * Typed appender, only supported when {@link #type()} is a {@link BaseDataTypeFloat}.
+     */
+    default void appendDouble(double value) throws IOException, SQLException {
+        throw new SQLFeatureNotSupportedException("appendDouble on column: " + name());
+    }
+
     /**
      * Flush to socket output stream
      *
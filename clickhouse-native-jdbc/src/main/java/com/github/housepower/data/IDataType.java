@@ -57,6 +57,13 @@ public interface IDataType<CK, JDBC> {
 
     int getPrecision();
 
+    /**
+     * Bytes per value in the native format, -1 if the values have variable width.
+     */
+    default int fixedByteSize() {
+        return -1;
+    }
+
     int getScale();
 
     default String serializeText(CK value) {
@@ -65,6 +72,10 @@ public interface IDataType<CK, JDBC> {
 
     void serializeBinary(CK data, BinarySerializer serializer) throws SQLException, IOException;
 
+    /**
+     * @param data an array of {@link #javaType()}, null values of the primitive types are written as 0 like the
+     *             server does for columns that aren't Nullable
+     */
     default void serializeBinaryBulk(CK[] data, BinarySerializer serializer) throws SQLException, IOException {
         for (CK d : data) {
             serializeBinary(d, serializer);
@@ -83,4 +94,16 @@ public interface IDataType<CK, JDBC> {
         }
         return data;
     }
+
+    /**
+     * Read past {@code rows} values without materializing them, types of variable width decode by default.
+     */
+    default void skipBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        int size = fixedByteSize();
+        if (size < 0) {
+            deserializeBinaryBulk(rows, deserializer);
+            return;
+        }
+        deserializer.skipBytes((long) rows * size);
+    }
 }
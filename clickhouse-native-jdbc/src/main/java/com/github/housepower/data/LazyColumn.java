@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteArrayReader;
+import com.github.housepower.misc.ExceptionUtil;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+
+/**
+ * Column kept as the raw bytes read from the server, decoded on first access.
+ */
+public class LazyColumn implements IColumn {
+
+    private final String name;
+    private final IDataType<?, ?> type;
+    private final int rows;
+    private byte[] raw;
+    private IColumn column;
+
+    public LazyColumn(String name, IDataType<?, ?> type, int rows, byte[] raw) {
+        this.name = name;
+        this.type = type;
+        this.rows = rows;
+        this.raw = raw;
+    }
+
+    public boolean isDecoded() {
+        return column != null;
+    }
+
+    private IColumn column() {
+        if (column == null) {
+            try {
+                column = ColumnFactory.readColumn(name, type, rows, new BinaryDeserializer(new ByteArrayReader(raw), false));
+            } catch (IOException | SQLException e) {
+                throw ExceptionUtil.unchecked(e);
+            }
+            raw = null;
+        }
+        return column;
+    }
+
+    @Override
+    public boolean isExported() {
+        return name != null;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public IDataType<?, ?> type() {
+        return type;
+    }
+
+    @Override
+    public Object value(int idx) {
+        return column().value(idx);
+    }
+
+    @Override
+    public boolean isNull(int idx) {
+        return column().isNull(idx);
+    }
+
+    @Override
+    public ByteBuffer bytesView(int idx) {
+        return column().bytesView(idx);
+    }
+
+    @Override
+    public byte byteValue(int idx) {
+        return column().byteValue(idx);
+    }
+
+    @Override
+    public short shortValue(int idx) {
+        return column().shortValue(idx);
+    }
+
+    @Override
+    public int intValue(int idx) {
+        return column().intValue(idx);
+    }
+
+    @Override
+    public long longValue(int idx) {
+        return column().longValue(idx);
+    }
+
+    @Override
+    public float floatValue(int idx) {
+        return column().floatValue(idx);
+    }
+
+    @Override
+    public double doubleValue(int idx) {
+        return column().doubleValue(idx);
+    }
+
+    @Override
+    public void write(Object object) throws IOException, SQLException {
+        column().write(object);
+    }
+
+    @Override
+    public void appendLong(long value) throws IOException, SQLException {
+        column().appendLong(value);
+    }
+
+    @Override
+    public void appendDouble(double value) throws IOException, SQLException {
+        column().appendDouble(value);
+    }
+
+    @Override
+    public void flushToSerializer(BinarySerializer serializer, boolean now) throws IOException, SQLException {
+        column().flushToSerializer(serializer, now);
+    }
+
+    @Override
+    public void clear() {
+        raw = null;
+        if (column != null) {
+            column.clear();
+        }
+    }
+
+    @Override
+    public void setColumnWriterBuffer(ColumnWriterBuffer buffer) {
+        column().setColumnWriterBuffer(buffer);
+    }
+
+    @Override
+    public ColumnWriterBuffer getColumnWriterBuffer() {
+        return column().getColumnWriterBuffer();
+    }
+}
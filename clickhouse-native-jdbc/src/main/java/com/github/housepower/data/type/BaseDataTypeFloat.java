@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data.type;
+
+import com.github.housepower.data.IDataType;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+
+public interface BaseDataTypeFloat<CK, JDBC> extends IDataType<CK, JDBC> {
+
+    /**
+     * Write {@code value} narrowed to the column type, without boxing it into the java type.
+     */
+    void serializeDouble(double value, BinarySerializer serializer) throws IOException;
+}
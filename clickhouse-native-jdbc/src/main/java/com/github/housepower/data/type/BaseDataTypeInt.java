@@ -15,6 +15,9 @@
 package com.github.housepower.data.type;
 
 import com.github.housepower.data.IDataType;
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
 
 public interface BaseDataTypeInt<CK, JDBC> extends IDataType<CK, JDBC> {
 
@@ -22,4 +25,9 @@ public interface BaseDataTypeInt<CK, JDBC> extends IDataType<CK, JDBC> {
     default int getScale() {
         return 0;
     }
+
+    /**
+     * Write the low bytes of {@code value}, without boxing it into the java type.
+     */
+    void serializeLong(long value, BinarySerializer serializer) throws IOException;
 }
@@ -14,6 +14,9 @@
 
 package com.github.housepower.data.type;
 
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
 import java.math.BigInteger;
 import java.sql.Types;
 
@@ -24,6 +27,16 @@ public interface BaseDataTypeInt64<CK, JDBC> extends BaseDataTypeInt<CK, JDBC> {
         return Types.BIGINT;
     }
 
+    @Override
+    default int fixedByteSize() {
+        return 8;
+    }
+
+    @Override
+    default void serializeLong(long value, BinarySerializer serializer) throws IOException {
+        serializer.writeLong(value);
+    }
+
     default BigInteger parseBigIntegerPositive(String num, int bitlen) {
         BigInteger b = new BigInteger(num);
         if (b.compareTo(BigInteger.ZERO) < 0) {
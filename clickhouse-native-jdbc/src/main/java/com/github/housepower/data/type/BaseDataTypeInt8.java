@@ -14,6 +14,9 @@
 
 package com.github.housepower.data.type;
 
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
 import java.sql.Types;
 
 public interface BaseDataTypeInt8<CK, JDBC> extends BaseDataTypeInt<CK, JDBC> {
@@ -22,4 +25,14 @@ public interface BaseDataTypeInt8<CK, JDBC> extends BaseDataTypeInt<CK, JDBC> {
     default int sqlTypeId() {
         return Types.TINYINT;
     }
+
+    @Override
+    default int fixedByteSize() {
+        return 1;
+    }
+
+    @Override
+    default void serializeLong(long value, BinarySerializer serializer) throws IOException {
+        serializer.writeByte((byte) value);
+    }
 }
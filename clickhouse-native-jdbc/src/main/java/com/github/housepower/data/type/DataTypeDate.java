@@ -43,6 +43,11 @@ public class DataTypeDate implements IDataType<LocalDate, Date> {
         return Types.DATE;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 2;
+    }
+
     @Override
     public LocalDate defaultValue() {
         return DEFAULT_VALUE;
@@ -14,7 +14,6 @@
 
 package com.github.housepower.data.type;
 
-import com.github.housepower.data.IDataType;
 import com.github.housepower.misc.SQLLexer;
 import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
@@ -23,7 +22,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Types;
 
-public class DataTypeFloat32 implements IDataType<Float, Float> {
+public class DataTypeFloat32 implements BaseDataTypeFloat<Float, Float> {
 
     @Override
     public String name() {
@@ -35,6 +34,11 @@ public class DataTypeFloat32 implements IDataType<Float, Float> {
         return Types.FLOAT;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 4;
+    }
+
     @Override
     public Float defaultValue() {
         return 0.0F;
@@ -60,11 +64,36 @@ public class DataTypeFloat32 implements IDataType<Float, Float> {
         serializer.writeFloat(data);
     }
 
+    @Override
+    public void serializeDouble(double value, BinarySerializer serializer) throws IOException {
+        serializer.writeFloat((float) value);
+    }
+
     @Override
     public Float deserializeBinary(BinaryDeserializer deserializer) throws IOException {
         return deserializer.readFloat();
     }
 
+    @Override
+    public void serializeBinaryBulk(Float[] data, BinarySerializer serializer) throws SQLException, IOException {
+        float[] values = new float[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row];
+        }
+        serializer.writeFloats(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        float[] values = new float[rows];
+        deserializer.readFloats(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"FLOAT"};
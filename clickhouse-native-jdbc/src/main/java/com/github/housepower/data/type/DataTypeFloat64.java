@@ -14,7 +14,6 @@
 
 package com.github.housepower.data.type;
 
-import com.github.housepower.data.IDataType;
 import com.github.housepower.misc.SQLLexer;
 import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
@@ -23,7 +22,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Types;
 
-public class DataTypeFloat64 implements IDataType<Double, Double> {
+public class DataTypeFloat64 implements BaseDataTypeFloat<Double, Double> {
 
     @Override
     public String name() {
@@ -35,6 +34,11 @@ public class DataTypeFloat64 implements IDataType<Double, Double> {
         return Types.DOUBLE;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 8;
+    }
+
     @Override
     public Double defaultValue() {
         return 0.0D;
@@ -60,11 +64,36 @@ public class DataTypeFloat64 implements IDataType<Double, Double> {
         serializer.writeDouble(data);
     }
 
+    @Override
+    public void serializeDouble(double value, BinarySerializer serializer) throws IOException {
+        serializer.writeDouble(value);
+    }
+
     @Override
     public Double deserializeBinary(BinaryDeserializer deserializer) throws SQLException, IOException {
         return deserializer.readDouble();
     }
 
+    @Override
+    public void serializeBinaryBulk(Double[] data, BinarySerializer serializer) throws SQLException, IOException {
+        double[] values = new double[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row];
+        }
+        serializer.writeDoubles(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        double[] values = new double[rows];
+        deserializer.readDoubles(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"DOUBLE"};
@@ -35,6 +35,11 @@ public class DataTypeIPv4 implements IDataType<Long, Long> {
         return Types.INTEGER;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 4;
+    }
+
     @Override
     public Long defaultValue() {
         return 0L;
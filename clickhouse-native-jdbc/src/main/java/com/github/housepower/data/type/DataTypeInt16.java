@@ -54,6 +54,26 @@ public class DataTypeInt16 implements BaseDataTypeInt16<Short, Short> {
         return deserializer.readShort();
     }
 
+    @Override
+    public void serializeBinaryBulk(Short[] data, BinarySerializer serializer) throws SQLException, IOException {
+        short[] values = new short[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row];
+        }
+        serializer.writeShorts(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        short[] values = new short[rows];
+        deserializer.readShorts(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"SMALLINT"};
@@ -53,6 +53,26 @@ public class DataTypeInt32 implements BaseDataTypeInt32<Integer, Integer> {
         return deserializer.readInt();
     }
 
+    @Override
+    public void serializeBinaryBulk(Integer[] data, BinarySerializer serializer) throws SQLException, IOException {
+        int[] values = new int[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row];
+        }
+        serializer.writeInts(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        int[] values = new int[rows];
+        deserializer.readInts(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"INT", "INTEGER"};
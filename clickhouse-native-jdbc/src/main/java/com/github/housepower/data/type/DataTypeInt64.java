@@ -53,6 +53,26 @@ public class DataTypeInt64 implements BaseDataTypeInt64<Long, Long> {
         return deserializer.readLong();
     }
 
+    @Override
+    public void serializeBinaryBulk(Long[] data, BinarySerializer serializer) throws SQLException, IOException {
+        long[] values = new long[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row];
+        }
+        serializer.writeLongs(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        long[] values = new long[rows];
+        deserializer.readLongs(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"BIGINT"};
@@ -53,6 +53,26 @@ public class DataTypeInt8 implements BaseDataTypeInt8<Byte, Byte> {
         return deserializer.readByte();
     }
 
+    @Override
+    public void serializeBinaryBulk(Byte[] data, BinarySerializer serializer) throws SQLException, IOException {
+        byte[] values = new byte[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row];
+        }
+        serializer.writeBytes(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        byte[] values = new byte[rows];
+        deserializer.readBytes(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row];
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[]{"TINYINT"};
@@ -54,6 +54,26 @@ public class DataTypeUInt16 implements BaseDataTypeInt16<Integer, Integer> {
         return s & 0xffff;
     }
 
+    @Override
+    public void serializeBinaryBulk(Integer[] data, BinarySerializer serializer) throws SQLException, IOException {
+        short[] values = new short[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row].shortValue();
+        }
+        serializer.writeShorts(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        short[] values = new short[rows];
+        deserializer.readShorts(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = values[row] & 0xffff;
+        }
+        return data;
+    }
+
     @Override
     public Integer deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.numberLiteral().intValue();
@@ -54,6 +54,26 @@ public class DataTypeUInt32 implements BaseDataTypeInt32<Long, Long> {
         return 0xffffffffL & res;
     }
 
+    @Override
+    public void serializeBinaryBulk(Long[] data, BinarySerializer serializer) throws SQLException, IOException {
+        int[] values = new int[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row].intValue();
+        }
+        serializer.writeInts(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        int[] values = new int[rows];
+        deserializer.readInts(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = 0xffffffffL & values[row];
+        }
+        return data;
+    }
+
     @Override
     public Long deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.numberLiteral().longValue();
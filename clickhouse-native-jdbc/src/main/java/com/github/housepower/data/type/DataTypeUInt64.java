@@ -59,6 +59,26 @@ public class DataTypeUInt64 implements BaseDataTypeInt64<BigInteger, BigInteger>
         return new BigInteger(1, getBytes(l));
     }
 
+    @Override
+    public void serializeBinaryBulk(BigInteger[] data, BinarySerializer serializer) throws SQLException, IOException {
+        long[] values = new long[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row].longValue();
+        }
+        serializer.writeLongs(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        long[] values = new long[rows];
+        deserializer.readLongs(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = new BigInteger(1, getBytes(values[row]));
+        }
+        return data;
+    }
+
     @Override
     public String[] getAliases() {
         return new String[0];
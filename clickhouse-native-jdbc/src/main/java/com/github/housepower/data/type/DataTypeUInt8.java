@@ -54,6 +54,26 @@ public class DataTypeUInt8 implements BaseDataTypeInt8<Short, Short> {
         return (short) (b & 0xff);
     }
 
+    @Override
+    public void serializeBinaryBulk(Short[] data, BinarySerializer serializer) throws SQLException, IOException {
+        byte[] values = new byte[data.length];
+        for (int row = 0; row < data.length; row++) {
+            values[row] = data[row] == null ? 0 : data[row].byteValue();
+        }
+        serializer.writeBytes(values, 0, values.length);
+    }
+
+    @Override
+    public Object[] deserializeBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        byte[] values = new byte[rows];
+        deserializer.readBytes(values, 0, rows);
+        Object[] data = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+            data[row] = (short) (values[row] & 0xff);
+        }
+        return data;
+    }
+
     @Override
     public Short deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.numberLiteral().shortValue();
@@ -36,6 +36,11 @@ public class DataTypeUUID implements IDataType<UUID, String> {
         return Types.VARCHAR;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 16;
+    }
+
     @Override
     public UUID defaultValue() {
         return null;
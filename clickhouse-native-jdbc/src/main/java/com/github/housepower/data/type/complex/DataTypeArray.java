@@ -119,8 +119,20 @@ public class DataTypeArray implements IDataType<ClickHouseArray, Array> {
 
     @Override
     public void serializeBinaryBulk(ClickHouseArray[] data, BinarySerializer serializer) throws SQLException, IOException {
-        offsetIDataType.serializeBinary((long) data.length, serializer);
-        getElemDataType().serializeBinaryBulk(data, serializer);
+        // cumulative offsets, then the elements of all rows as one column, the layout read by deserializeBinaryBulk
+        int total = 0;
+        for (ClickHouseArray array : data) {
+            total += array.getArray().length;
+            offsetIDataType.serializeBinary((long) total, serializer);
+        }
+        Object[] elems = (Object[]) java.lang.reflect.Array.newInstance(elemDataType.javaType(), total);
+        int position = 0;
+        for (ClickHouseArray array : data) {
+            Object[] arrayElems = array.getArray();
+            System.arraycopy(arrayElems, 0, elems, position, arrayElems.length);
+            position += arrayElems.length;
+        }
+        getElemDataType().serializeBinaryBulk(elems, serializer);
     }
 
     @Override
@@ -149,6 +161,17 @@ public class DataTypeArray implements IDataType<ClickHouseArray, Array> {
         return arrays;
     }
 
+    @Override
+    public void skipBinaryBulk(int rows, BinaryDeserializer deserializer) throws IOException, SQLException {
+        if (rows == 0) {
+            return;
+        }
+        // the offsets are cumulative, only the last one is needed to size the nested column
+        deserializer.skipBytes((rows - 1) * 8L);
+        long elems = deserializer.readLong();
+        elemDataType.skipBinaryBulk((int) elems, deserializer);
+    }
+
     public IDataType getElemDataType() {
         return elemDataType;
     }
@@ -61,6 +61,11 @@ public class DataTypeDateTime implements IDataType<ZonedDateTime, Timestamp> {
         return Types.TIMESTAMP;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 4;
+    }
+
     @Override
     public ZonedDateTime defaultValue() {
         return defaultValue;
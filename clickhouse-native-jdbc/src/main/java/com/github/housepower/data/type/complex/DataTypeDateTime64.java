@@ -84,6 +84,11 @@ public class DataTypeDateTime64 implements IDataType<ZonedDateTime, Timestamp> {
         return Types.TIMESTAMP;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 8;
+    }
+
     @Override
     public ZonedDateTime defaultValue() {
         return defaultValue;
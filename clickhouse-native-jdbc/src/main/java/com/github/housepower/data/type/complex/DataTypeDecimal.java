@@ -77,6 +77,11 @@ public class DataTypeDecimal implements IDataType<BigDecimal, BigDecimal>, Bytes
         return Types.DECIMAL;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return nobits / 8;
+    }
+
     @Override
     public BigDecimal defaultValue() {
         return BigDecimal.ZERO;
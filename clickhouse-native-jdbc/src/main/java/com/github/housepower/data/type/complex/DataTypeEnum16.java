@@ -77,6 +77,11 @@ public class DataTypeEnum16 implements IDataType<String, String> {
         return Types.VARCHAR;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 2;
+    }
+
     @Override
     public String defaultValue() {
         return names[0];
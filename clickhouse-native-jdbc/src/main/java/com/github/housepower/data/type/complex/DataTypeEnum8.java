@@ -78,6 +78,11 @@ public class DataTypeEnum8 implements IDataType<String, String> {
         return Types.VARCHAR;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return 1;
+    }
+
     @Override
     public String defaultValue() {
         return names[0];
@@ -63,6 +63,11 @@ public class DataTypeFixedString implements IDataType<CharSequence, String> {
         return Types.VARCHAR;
     }
 
+    @Override
+    public int fixedByteSize() {
+        return n;
+    }
+
     @Override
     public String defaultValue() {
         return defaultValue;
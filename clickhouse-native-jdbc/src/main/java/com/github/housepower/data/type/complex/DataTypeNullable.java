@@ -22,6 +22,7 @@ import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.sql.SQLException;
 
 public class DataTypeNullable implements IDataType {
@@ -61,6 +62,13 @@ public class DataTypeNullable implements IDataType {
         return nestedDataType.sqlTypeId();
     }
 
+    @Override
+    public int fixedByteSize() {
+        // null map byte followed by the nested value
+        int nestedSize = nestedDataType.fixedByteSize();
+        return nestedSize < 0 ? -1 : 1 + nestedSize;
+    }
+
     @Override
     public Object defaultValue() {
         return nestedDataType.defaultValue();
@@ -111,12 +119,14 @@ public class DataTypeNullable implements IDataType {
     @Override
     public void serializeBinaryBulk(Object[] data, BinarySerializer serializer) throws SQLException, IOException {
         Short[] isNull = new Short[data.length];
+        // typed array, the bulk serializers of the primitive types expect their own java type
+        Object[] nested = (Object[]) Array.newInstance(nestedDataType.javaType(), data.length);
         for (int i = 0; i < data.length; i++) {
             isNull[i] = (data[i] == null ? IS_NULL : NON_NULL);
-            data[i] = data[i] == null ? nestedDataType.defaultValue() : data[i];
+            nested[i] = data[i] == null ? nestedDataType.defaultValue() : data[i];
         }
         nullMapDataType.serializeBinaryBulk(isNull, serializer);
-        nestedDataType.serializeBinaryBulk(data, serializer);
+        nestedDataType.serializeBinaryBulk(nested, serializer);
     }
 
     @Override
@@ -141,6 +151,13 @@ public class DataTypeNullable implements IDataType {
         return data;
     }
 
+    @Override
+    public void skipBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        // one null map byte per row, then the nested column
+        deserializer.skipBytes(rows);
+        nestedDataType.skipBinaryBulk(rows, deserializer);
+    }
+
     @Override
     public boolean isSigned() {
         return nestedDataType.isSigned();
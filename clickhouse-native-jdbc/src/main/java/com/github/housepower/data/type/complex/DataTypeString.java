@@ -35,6 +35,10 @@ public class DataTypeString implements IDataType<CharSequence, String> {
         this.charset = charset;
     }
 
+    public Charset charset() {
+        return charset;
+    }
+
     @Override
     public String name() {
         return "String";
@@ -89,6 +93,13 @@ public class DataTypeString implements IDataType<CharSequence, String> {
         return new String(bs, charset);
     }
 
+    @Override
+    public void skipBinaryBulk(int rows, BinaryDeserializer deserializer) throws IOException {
+        for (int row = 0; row < rows; row++) {
+            deserializer.skipBytesBinary();
+        }
+    }
+
     @Override
     public CharSequence deserializeText(SQLLexer lexer) throws SQLException {
         return lexer.stringView();
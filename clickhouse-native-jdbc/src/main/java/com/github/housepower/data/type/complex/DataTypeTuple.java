@@ -23,6 +23,7 @@ import com.github.housepower.serde.BinaryDeserializer;
 import com.github.housepower.serde.BinarySerializer;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.sql.SQLException;
 import java.sql.Struct;
 import java.sql.Types;
@@ -108,7 +109,8 @@ public class DataTypeTuple implements IDataType<ClickHouseStruct, Struct> {
     @Override
     public void serializeBinaryBulk(ClickHouseStruct[] data, BinarySerializer serializer) throws SQLException, IOException {
         for (int i = 0; i < getNestedTypes().length; i++) {
-            Object[] elemsData = new Object[data.length];
+            // typed array, the bulk serializers of the primitive types expect their own java type
+            Object[] elemsData = (Object[]) Array.newInstance(getNestedTypes()[i].javaType(), data.length);
             for (int row = 0; row < data.length; row++) {
                 elemsData[row] = ((Struct) data[row]).getAttributes()[i];
             }
@@ -141,6 +143,13 @@ public class DataTypeTuple implements IDataType<ClickHouseStruct, Struct> {
         return rowsData;
     }
 
+    @Override
+    public void skipBinaryBulk(int rows, BinaryDeserializer deserializer) throws SQLException, IOException {
+        for (IDataType<?, ?> nestedType : getNestedTypes()) {
+            nestedType.skipBinaryBulk(rows, deserializer);
+        }
+    }
+
     private Object[][] getRowsWithElems(int rows, BinaryDeserializer deserializer) throws IOException, SQLException {
         Object[][] rowsWithElems = new Object[getNestedTypes().length][];
         for (int index = 0; index < getNestedTypes().length; index++) {
@@ -17,24 +17,43 @@ package com.github.housepower.jdbc;
 import com.github.housepower.exception.InvalidValueException;
 import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.misc.CheckedFunction;
+import com.github.housepower.misc.NamedThreadFactory;
 import com.github.housepower.misc.StrUtil;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.settings.ClickHouseConfig;
 import com.github.housepower.settings.SettingKey;
 import com.github.housepower.jdbc.wrapper.SQLWrapper;
 
+import javax.annotation.Nullable;
 import java.io.PrintWriter;
 import java.io.Serializable;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -44,11 +63,16 @@ import javax.sql.DataSource;
 /**
  * <p> Database for clickhouse jdbc connections.
  * <p> It has list of database urls.
- * For every {@link #getConnection() getConnection} invocation, it returns connection to random host from the list.
- * Furthermore, this class has method { #scheduleActualization(int, TimeUnit) scheduleActualization}
- * which test hosts for availability. By default, this option is turned off.
+ * For every {@link #getConnection() getConnection} invocation, it returns connection to a host from the list
+ * picked by the {@link RoutingStrategy}, a random host by default.
+ * Furthermore, this class has method {@link #scheduleActualization(int, TimeUnit) scheduleActualization}
+ * which test hosts for availability and latency in the background. By default, this option is turned off.
+ * <p> Read-only queries can be hedged across hosts to cut tail latency,
+ * see {@link #executeHedgedQuery(String, CheckedFunction) executeHedgedQuery}.
+ * <p> Connections are pooled per host once {@link #setPoolMaxSize(int)} is positive, closing a pooled connection
+ * gives it back for reuse. The pool options must be set before the first {@link #getConnection() getConnection}.
  */
-public final class BalancedClickhouseDataSource implements DataSource, SQLWrapper {
+public final class BalancedClickhouseDataSource implements DataSource, SQLWrapper, AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(BalancedClickhouseDataSource.class);
     private static final Pattern URL_TEMPLATE = Pattern.compile(ClickhouseJdbcUrlParser.JDBC_CLICKHOUSE_PREFIX +
@@ -60,13 +84,35 @@ public final class BalancedClickhouseDataSource implements DataSource, SQLWrappe
     private PrintWriter printWriter;
     private int loginTimeoutSeconds = 0;
 
-    private final ThreadLocal<Random> randomThreadLocal = new ThreadLocal<>();
     private final List<String> allUrls;
     private volatile List<String> enabledUrls;
+    private final Map<String, HostHealth> hosts;
+    private volatile RoutingStrategy routingStrategy = RoutingStrategy.RANDOM;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private volatile Duration healthCheckTimeout = Duration.ofSeconds(1);
+    @Nullable
+    private volatile Duration hedgeDelay;
 
     private final ClickHouseConfig cfg;
     private final ClickHouseDriver driver = new ClickHouseDriver();
 
+    private int poolMaxSize = 0;
+    private int poolMinIdle = 0;
+    private Duration poolIdleTimeout = Duration.ofMinutes(5);
+    private Duration poolMaxWait = Duration.ofSeconds(30);
+    private final ConcurrentMap<String, ClickHouseConnectionPool> pools = new ConcurrentHashMap<>();
+
+    // checks don't overlap, a check started while another runs is skipped
+    private final AtomicBoolean actualizing = new AtomicBoolean();
+    // guards the executors only, so the query path never waits on a running check or on pool creation
+    private final Object executorLock = new Object();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService probeExecutor;
+    @Nullable
+    private ScheduledFuture<?> actualization;
+    private boolean evictorScheduled;
+    private HedgedQueryExecutor hedgedQueryExecutor;
+
     /**
      * create Datasource for clickhouse JDBC connections
      *
@@ -133,6 +179,12 @@ public final class BalancedClickhouseDataSource implements DataSource, SQLWrappe
 
         this.allUrls = Collections.unmodifiableList(allUrls);
         this.enabledUrls = this.allUrls;
+
+        Map<String, HostHealth> hosts = new LinkedHashMap<>();
+        for (String url : allUrls) {
+            hosts.computeIfAbsent(url, u -> new HostHealth(u, driver));
+        }
+        this.hosts = Collections.unmodifiableMap(hosts);
     }
 
     static List<String> splitUrl(final String url) {
@@ -145,50 +197,178 @@ public final class BalancedClickhouseDataSource implements DataSource, SQLWrappe
                 .collect(Collectors.toList());
     }
 
-    private boolean ping(final String url) {
-        try (ClickHouseConnection connection = driver.connect(url, cfg)) {
-            return connection.ping(Duration.ofSeconds(1));
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     /**
      * Checks if clickhouse on url is alive, if it isn't, disable url, else enable.
+     * All hosts are pinged concurrently over their probe connections, a host that doesn't answer
+     * within the health check timeout is disabled until a later check succeeds. A check called while another
+     * one runs is skipped and leaves the hosts unchanged.
      *
      * @return number of available clickhouse urls
      */
-    synchronized int actualize() {
-        List<String> enabledUrls = new ArrayList<>(allUrls.size());
+    int actualize() {
+        if (!actualizing.compareAndSet(false, true)) {
+            LOG.debug("skip the check of the hosts, the previous one is still running");
+            return enabledUrls.size();
+        }
+        try {
+            return actualizeHosts();
+        } finally {
+            actualizing.set(false);
+        }
+    }
 
-        for (String url : allUrls) {
-            LOG.debug("Pinging disabled url: {}", url);
-            if (ping(url)) {
-                LOG.debug("Url is alive now: {}", url);
-                enabledUrls.add(url);
+    private int actualizeHosts() {
+        ExecutorService probes = probeExecutor();
+        Map<String, Future<Boolean>> results = new LinkedHashMap<>();
+        Duration timeout = healthCheckTimeout;
+        for (HostHealth host : hosts.values()) {
+            results.put(host.url(), probes.submit(() -> host.probe(cfg, timeout)));
+        }
+
+        // a probe may need to connect before it pings
+        long deadline = System.nanoTime() + 2 * timeout.toNanos();
+        Set<String> aliveUrls = new HashSet<>();
+        for (Map.Entry<String, Future<Boolean>> result : results.entrySet()) {
+            if (awaitProbe(result.getValue(), deadline)) {
+                LOG.debug("Url is alive now: {}", result.getKey());
+                aliveUrls.add(result.getKey());
             } else {
-                LOG.warn("Url is dead now: {}", url);
+                LOG.warn("Url is dead now: {}", result.getKey());
             }
         }
 
+        List<String> enabledUrls = new ArrayList<>(allUrls.size());
+        for (String url : allUrls) {
+            if (aliveUrls.contains(url)) {
+                enabledUrls.add(url);
+            }
+        }
         this.enabledUrls = Collections.unmodifiableList(enabledUrls);
         return enabledUrls.size();
     }
 
+    /**
+     * Check the hosts in the background, see {@link #actualize()}. Replaces the previous schedule.
+     *
+     * @param delay    delay between the end of a check and the start of the next one
+     * @param timeUnit time unit of {@code delay}
+     */
+    public synchronized void scheduleActualization(int delay, TimeUnit timeUnit) {
+        if (actualization != null) {
+            actualization.cancel(false);
+        }
+        actualization = scheduler().scheduleWithFixedDelay(() -> {
+            try {
+                actualize();
+            } catch (Throwable th) {
+                LOG.warn("failed to check the hosts", th);
+            }
+        }, 0, delay, timeUnit);
+    }
+
+    private static boolean awaitProbe(Future<Boolean> result, long deadline) {
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            // a timed out probe keeps running, the next check fails fast until it finishes
+            return false;
+        }
+    }
 
     private String getAnyUrl() throws SQLException {
+        return selectUrl(null);
+    }
+
+    private String selectUrl(@Nullable String routingKey) throws SQLException {
         List<String> localEnabledUrls = enabledUrls;
         if (localEnabledUrls.isEmpty()) {
             throw new SQLException("Unable to get connection: there are no enabled urls");
         }
-        Random random = this.randomThreadLocal.get();
-        if (random == null) {
-            this.randomThreadLocal.set(new Random());
-            random = this.randomThreadLocal.get();
+        return selectUrl(localEnabledUrls, routingKey);
+    }
+
+    // another enabled host than `url`, null if there is none
+    @Nullable
+    private String selectOtherUrl(String url) {
+        List<String> otherUrls = new ArrayList<>(enabledUrls);
+        otherUrls.removeIf(url::equals);
+        return otherUrls.isEmpty() ? null : selectUrl(otherUrls, null);
+    }
+
+    private String selectUrl(List<String> localEnabledUrls, @Nullable String routingKey) {
+        if (localEnabledUrls.size() == 1) {
+            return localEnabledUrls.get(0);
+        }
+        switch (routingStrategy) {
+            case ROUND_ROBIN:
+                return localEnabledUrls.get(Math.floorMod(roundRobin.getAndIncrement(), localEnabledUrls.size()));
+            case LEAST_LATENCY:
+                return leastLatencyUrl(localEnabledUrls);
+            case POWER_OF_TWO_CHOICES:
+                return powerOfTwoChoicesUrl(localEnabledUrls);
+            case STICKY_BY_KEY:
+                return routingKey != null ? rendezvousUrl(localEnabledUrls, routingKey) : randomUrl(localEnabledUrls);
+            default:
+                return randomUrl(localEnabledUrls);
+        }
+    }
+
+    private static String randomUrl(List<String> urls) {
+        return urls.get(ThreadLocalRandom.current().nextInt(urls.size()));
+    }
+
+    private String leastLatencyUrl(List<String> urls) {
+        String best = null;
+        double bestLatency = Double.MAX_VALUE;
+        for (String url : urls) {
+            double latency = hosts.get(url).latencyNanos();
+            if (latency < bestLatency) {
+                best = url;
+                bestLatency = latency;
+            }
+        }
+        // NaN never compares less, no host has been probed yet
+        return best != null ? best : randomUrl(urls);
+    }
+
+    private String powerOfTwoChoicesUrl(List<String> urls) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(urls.size());
+        int second = random.nextInt(urls.size() - 1);
+        if (second >= first) {
+            second++;
         }
+        String a = urls.get(first);
+        String b = urls.get(second);
+        return hosts.get(b).latencyNanos() < hosts.get(a).latencyNanos() ? b : a;
+    }
+
+    // highest random weight, only the keys of a disabled host move to other hosts
+    static String rendezvousUrl(List<String> urls, String routingKey) {
+        String best = null;
+        long bestScore = Long.MIN_VALUE;
+        long keyHash = routingKey.hashCode();
+        for (String url : urls) {
+            long score = mix64(keyHash * 0x9E3779B97F4A7C15L + url.hashCode());
+            if (best == null || score > bestScore) {
+                best = url;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
 
-        int index = random.nextInt(localEnabledUrls.size());
-        return localEnabledUrls.get(index);
+    // finalizer of MurmurHash3
+    private static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
     }
 
     /**
@@ -196,10 +376,41 @@ public final class BalancedClickhouseDataSource implements DataSource, SQLWrappe
      */
     @Override
     public ClickHouseConnection getConnection() throws SQLException {
-        return driver.connect(getAnyUrl(), cfg);
+        return connect(getAnyUrl());
     }
 
     /**
+     * Same as {@link #getConnection()}, with {@link RoutingStrategy#STICKY_BY_KEY} the connections of the same
+     * {@code routingKey} go to the same host.
+     */
+    public ClickHouseConnection getConnectionByKey(String routingKey) throws SQLException {
+        return connect(selectUrl(routingKey));
+    }
+
+    /**
+     * Run a read-only query, and the same query on another host if no header arrived within the hedge delay.
+     * The first result wins and the other query is cancelled once its header arrived. The result set and its
+     * connection are closed once {@code handler} returns.
+     *
+     * @see #setHedgeDelay(Duration)
+     */
+    public <T> T executeHedgedQuery(String query, CheckedFunction<ResultSet, T, SQLException> handler) throws SQLException {
+        Validate.isTrue(ClickHouseConnection.isReadQuery(query), "Only read-only queries can be hedged: " + query);
+        String url = getAnyUrl();
+        return hedgedQueryExecutor().execute(url, selectOtherUrl(url), hedgeDelay,
+                host -> HedgedQueryExecutor.task(connect(host), query), handler);
+    }
+
+    private ClickHouseConnection connect(String url) throws SQLException {
+        if (poolMaxSize <= 0) {
+            return driver.connect(url, cfg);
+        }
+        return pool(url).borrow();
+    }
+
+    /**
+     * Connections with other credentials are never pooled.
+     * <p>
      * {@inheritDoc}
      */
     @Override
@@ -272,4 +483,176 @@ public final class BalancedClickhouseDataSource implements DataSource, SQLWrappe
     public ClickHouseConfig getCfg() {
         return cfg;
     }
+
+    public void setRoutingStrategy(RoutingStrategy routingStrategy) {
+        this.routingStrategy = routingStrategy;
+    }
+
+    public RoutingStrategy getRoutingStrategy() {
+        return routingStrategy;
+    }
+
+    /**
+     * @param healthCheckTimeout timeout of each ping, and of the connect of a probe
+     */
+    public void setHealthCheckTimeout(Duration healthCheckTimeout) {
+        this.healthCheckTimeout = healthCheckTimeout;
+    }
+
+    public Duration getHealthCheckTimeout() {
+        return healthCheckTimeout;
+    }
+
+    /**
+     * @param hedgeDelay how long {@link #executeHedgedQuery(String, CheckedFunction)} waits for the header before
+     *                   it sends the query to another host, null for the p95 of the recent header latencies
+     */
+    public void setHedgeDelay(@Nullable Duration hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    @Nullable
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * @return EWMA of the ping latency of the host, null if it was never probed successfully
+     */
+    @Nullable
+    public Duration getHostLatency(String url) {
+        HostHealth host = hosts.get(url);
+        if (host == null || Double.isNaN(host.latencyNanos())) {
+            return null;
+        }
+        return Duration.ofNanos((long) host.latencyNanos());
+    }
+
+    /**
+     * @param poolMaxSize max connections lent out per host at the same time, 0 to disable pooling
+     */
+    public void setPoolMaxSize(int poolMaxSize) {
+        this.poolMaxSize = poolMaxSize;
+    }
+
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    /**
+     * @param poolMinIdle idle connections kept open per host, refilled by the background evictor
+     */
+    public void setPoolMinIdle(int poolMinIdle) {
+        this.poolMinIdle = poolMinIdle;
+    }
+
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    /**
+     * @param poolIdleTimeout idle connections without any I/O for this long are closed instead of reused
+     */
+    public void setPoolIdleTimeout(Duration poolIdleTimeout) {
+        this.poolIdleTimeout = poolIdleTimeout;
+    }
+
+    public Duration getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+
+    /**
+     * @param poolMaxWait how long {@link #getConnection()} waits when all connections of the host are lent out
+     */
+    public void setPoolMaxWait(Duration poolMaxWait) {
+        this.poolMaxWait = poolMaxWait;
+    }
+
+    public Duration getPoolMaxWait() {
+        return poolMaxWait;
+    }
+
+    /**
+     * Stop the background checks and hedged queries, close the probes and the idle pooled connections,
+     * lent out connections are closed when returned.
+     */
+    @Override
+    public synchronized void close() {
+        synchronized (executorLock) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+                actualization = null;
+                evictorScheduled = false;
+            }
+            if (probeExecutor != null) {
+                probeExecutor.shutdownNow();
+                probeExecutor = null;
+            }
+            if (hedgedQueryExecutor != null) {
+                hedgedQueryExecutor.close();
+                hedgedQueryExecutor = null;
+            }
+        }
+        hosts.values().forEach(HostHealth::close);
+        pools.values().forEach(ClickHouseConnectionPool::close);
+        pools.clear();
+    }
+
+    private ScheduledExecutorService scheduler() {
+        synchronized (executorLock) {
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("clickhouse-datasource"));
+            }
+            return scheduler;
+        }
+    }
+
+    private HedgedQueryExecutor hedgedQueryExecutor() {
+        synchronized (executorLock) {
+            if (hedgedQueryExecutor == null) {
+                hedgedQueryExecutor = new HedgedQueryExecutor();
+            }
+            return hedgedQueryExecutor;
+        }
+    }
+
+    private ExecutorService probeExecutor() {
+        synchronized (executorLock) {
+            if (probeExecutor == null) {
+                probeExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("clickhouse-health-check"));
+            }
+            return probeExecutor;
+        }
+    }
+
+    private ClickHouseConnectionPool pool(String url) {
+        ClickHouseConnectionPool pool = pools.get(url);
+        return pool != null ? pool : createPool(url);
+    }
+
+    private synchronized ClickHouseConnectionPool createPool(String url) {
+        ClickHouseConnectionPool pool = pools.get(url);
+        if (pool != null) {
+            return pool;
+        }
+        pool = new ClickHouseConnectionPool(cfg.withJdbcUrl(url), poolMaxSize, poolMinIdle, poolIdleTimeout, poolMaxWait);
+        pools.put(url, pool);
+        if (!evictorScheduled) {
+            long periodMs = Math.max(1000, poolIdleTimeout.toMillis() / 2);
+            scheduler().scheduleWithFixedDelay(this::evictIdleConnections, periodMs, periodMs, TimeUnit.MILLISECONDS);
+            evictorScheduled = true;
+        }
+        return pool;
+    }
+
+    private void evictIdleConnections() {
+        for (ClickHouseConnectionPool pool : pools.values()) {
+            try {
+                pool.evict();
+            } catch (Throwable th) {
+                LOG.warn("failed to evict idle connections", th);
+            }
+        }
+    }
 }
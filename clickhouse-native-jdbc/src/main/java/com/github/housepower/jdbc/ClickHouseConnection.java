@@ -21,6 +21,7 @@ import com.github.housepower.data.Block;
 import com.github.housepower.data.DataTypeFactory;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.protocol.HelloResponse;
+import com.github.housepower.stream.QueryListener;
 import com.github.housepower.stream.QueryResult;
 import com.github.housepower.settings.ClickHouseConfig;
 import com.github.housepower.settings.ClickHouseDefines;
@@ -32,7 +33,9 @@ import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.EOFException;
 import java.net.InetSocketAddress;
+import java.net.SocketException;
 import java.sql.*;
 import java.time.Duration;
 import java.time.ZoneId;
@@ -50,17 +53,31 @@ public class ClickHouseConnection implements SQLConnection {
 
     private static final Logger LOG = LoggerFactory.getLogger(ClickHouseConnection.class);
     private static final Pattern VALUES_REGEX = Pattern.compile("[Vv][Aa][Ll][Uu][Ee][Ss]\\s*\\(");
+    // queries without side effects, safe to resend on a new connection
+    private static final Pattern READ_QUERY_REGEX = Pattern.compile("(?i)^\\s*\\(*\\s*(SELECT|WITH|SHOW|DESC|DESCRIBE|EXISTS)\\b");
 
     private final AtomicBoolean isClosed;
     private final AtomicReference<ClickHouseConfig> cfg;
     // TODO move to NativeClient
     private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.IDLE);
     private volatile NativeContext nativeCtx;
+    // takes the physical connection back on close, null if the connection isn't pooled
+    @Nullable
+    private final ClickHouseConnectionPool pool;
+    // a Cancel written before the Query packet would be ignored, so it waits for the query to be sent
+    private final Object cancelLock = new Object();
+    private boolean querySent;
+    private boolean cancelOnSend;
 
     protected ClickHouseConnection(ClickHouseConfig cfg, NativeContext nativeCtx) {
+        this(cfg, nativeCtx, null);
+    }
+
+    ClickHouseConnection(ClickHouseConfig cfg, NativeContext nativeCtx, @Nullable ClickHouseConnectionPool pool) {
         this.isClosed = new AtomicBoolean(false);
         this.cfg = new AtomicReference<>(cfg);
         this.nativeCtx = nativeCtx;
+        this.pool = pool;
     }
 
     public ClickHouseConfig cfg() {
@@ -130,12 +147,21 @@ public class ClickHouseConnection implements SQLConnection {
 
     @Override
     public void abort(Executor executor) throws SQLException {
+        // the session may be in the middle of a request, never give it back to the pool
+        if (pool != null && isClosed.compareAndSet(false, true)) {
+            pool.release(nativeCtx, false);
+            return;
+        }
         this.close();
     }
 
     @Override
     public void close() throws SQLException {
         if (!isClosed() && isClosed.compareAndSet(false, true)) {
+            if (pool != null) {
+                pool.release(nativeCtx, state.get() == SessionState.IDLE);
+                return;
+            }
             NativeClient nativeClient = nativeCtx.nativeClient();
             nativeClient.disconnect();
         }
@@ -256,20 +282,106 @@ public class ClickHouseConnection implements SQLConnection {
         return nativeCtx.nativeClient().ping(timeout, nativeCtx.serverCtx());
     }
 
+    /**
+     * Ask the server to stop the running query of this connection, may be called from another thread.
+     */
+    public void cancelQuery() throws SQLException {
+        getNativeClient().sendCancel();
+    }
+
+    /**
+     * Ask the server to stop the query of this connection as soon as it's sent, right away if it already is.
+     * Called from another thread than the one sending the query.
+     */
+    void cancelQueryOnceSent() throws SQLException {
+        synchronized (cancelLock) {
+            if (!querySent) {
+                cancelOnSend = true;
+                return;
+            }
+        }
+        cancelQuery();
+    }
+
+    private void querySent(NativeClient nativeClient) throws SQLException {
+        synchronized (cancelLock) {
+            querySent = true;
+            if (!cancelOnSend) {
+                return;
+            }
+            cancelOnSend = false;
+        }
+        nativeClient.sendCancel();
+    }
+
     public Block getSampleBlock(final String insertQuery) throws SQLException {
         NativeClient nativeClient = getHealthyNativeClient();
-        nativeClient.sendQuery(insertQuery, nativeCtx.clientCtx(), cfg.get().settings());
+        nativeClient.sendQuery(insertQuery, nativeCtx.clientCtx(), cfg.get().querySettings());
         Validate.isTrue(this.state.compareAndSet(SessionState.IDLE, SessionState.WAITING_INSERT),
                 "Connection is currently waiting for an insert operation, check your previous InsertStatement.");
         return nativeClient.receiveSampleBlock(cfg.get().queryTimeout(), nativeCtx.serverCtx());
     }
 
     public QueryResult sendQueryRequest(final String query, ClickHouseConfig cfg) throws SQLException {
+        return sendQueryRequest(query, cfg, null);
+    }
+
+    /**
+     * @param listener receives the progress, profile info, totals and extremes of the query, null to drop them
+     */
+    public QueryResult sendQueryRequest(final String query, ClickHouseConfig cfg, @Nullable QueryListener listener)
+            throws SQLException {
         Validate.isTrue(this.state.get() == SessionState.IDLE,
                 "Connection is currently waiting for an insert operation, check your previous InsertStatement.");
+        synchronized (cancelLock) {
+            querySent = false;
+        }
         NativeClient nativeClient = getHealthyNativeClient();
-        nativeClient.sendQuery(query, nativeCtx.clientCtx(), cfg.settings());
-        return nativeClient.receiveQuery(cfg.queryTimeout(), nativeCtx.serverCtx());
+        boolean retried = false;
+        try {
+            nativeClient.sendQuery(query, nativeCtx.clientCtx(), cfg.querySettings());
+        } catch (SQLException ex) {
+            // the request never reached the server completely, so it's safe to send again. Once it's written the
+            // server may be running it, e.g. a read timeout must not double the load of a slow server.
+            if (!nativeClient.isBroken() || !isReadQuery(query)) {
+                throw ex;
+            }
+            LOG.warn("connection loss while sending read query, retry on a new connection: {}", ex.getMessage());
+            nativeClient = resendQuery(query, cfg);
+            retried = true;
+        }
+        querySent(nativeClient);
+        try {
+            return receiveQuery(nativeClient, cfg, listener);
+        } catch (SQLException ex) {
+            // the server closed a stale connection without answering, e.g. it restarted or a proxy dropped it
+            if (retried || nativeClient.hasResponse() || !isConnectionLoss(ex) || !isReadQuery(query)) {
+                throw ex;
+            }
+            LOG.warn("connection loss before any response of read query, retry on a new connection: {}",
+                    ex.getMessage());
+            nativeClient = resendQuery(query, cfg);
+            querySent(nativeClient);
+            return receiveQuery(nativeClient, cfg, listener);
+        }
+    }
+
+    private NativeClient resendQuery(String query, ClickHouseConfig cfg) throws SQLException {
+        synchronized (cancelLock) {
+            querySent = false;
+        }
+        NativeClient nativeClient = getHealthyNativeClient();
+        nativeClient.sendQuery(query, nativeCtx.clientCtx(), cfg.querySettings());
+        return nativeClient;
+    }
+
+    // the header is read eagerly, so a query the server rejected fails here rather than in the ResultSet
+    private QueryResult receiveQuery(NativeClient nativeClient, ClickHouseConfig cfg,
+                                     @Nullable QueryListener listener) throws SQLException {
+        QueryResult result = nativeClient.receiveQuery(
+                cfg.queryTimeout(), nativeCtx.serverCtx(), cfg.readAheadBlocks(), cfg.readAheadMaxBytes(), listener);
+        result.header();
+        return result;
     }
     // when sendInsertRequest we must ensure the connection is healthy
     // the #getSampleBlock() must be called before this method
@@ -285,9 +397,12 @@ public class ClickHouseConnection implements SQLConnection {
         return block.rowCnt();
     }
 
+    // health is tracked passively from the last I/O, the server is only pinged after the connection sat idle
     synchronized private NativeClient getHealthyNativeClient() throws SQLException {
         NativeContext oldCtx = nativeCtx;
-        if (!oldCtx.nativeClient().ping(cfg.get().queryTimeout(), nativeCtx.serverCtx())) {
+        NativeClient oldClient = oldCtx.nativeClient();
+        if (oldClient.isBroken() || (oldClient.idleTime().compareTo(cfg.get().pingIdleTime()) >= 0
+                && !oldClient.ping(cfg.get().queryTimeout(), oldCtx.serverCtx()))) {
             LOG.warn("connection loss with state[{}], create new connection and reset state", state);
             nativeCtx = createNativeContext(cfg.get());
             state.set(SessionState.IDLE);
@@ -297,6 +412,20 @@ public class ClickHouseConnection implements SQLConnection {
         return nativeCtx.nativeClient();
     }
 
+    static boolean isReadQuery(String query) {
+        return READ_QUERY_REGEX.matcher(query).find();
+    }
+
+    // the peer closed or reset the connection, unlike a read timeout the server isn't known to run the query
+    static boolean isConnectionLoss(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof EOFException || cause instanceof SocketException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private NativeClient getNativeClient() {
         return nativeCtx.nativeClient();
     }
@@ -305,7 +434,7 @@ public class ClickHouseConnection implements SQLConnection {
         return new ClickHouseConnection(configure, createNativeContext(configure));
     }
 
-    private static NativeContext createNativeContext(ClickHouseConfig configure) throws SQLException {
+    static NativeContext createNativeContext(ClickHouseConfig configure) throws SQLException {
         NativeClient nativeClient = NativeClient.connect(configure);
         return new NativeContext(clientContext(nativeClient, configure), serverContext(nativeClient, configure), nativeClient);
     }
@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc;
+
+import com.github.housepower.client.NativeClient;
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.log.Logger;
+import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.settings.ClickHouseConfig;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of the physical connections to one host.
+ * <p>
+ * Every borrow returns a new {@link ClickHouseConnection} handle over an idle physical connection, closing
+ * the handle gives the physical connection back. Borrow and return don't lock unless the pool is exhausted.
+ * Idle connections are validated by the time of their last I/O, never by a ping.
+ */
+final class ClickHouseConnectionPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClickHouseConnectionPool.class);
+
+    private final ClickHouseConfig cfg;
+    private final int minIdle;
+    private final Duration idleTimeout;
+    private final Duration maxWait;
+
+    // one permit for each connection that may be lent out
+    private final Semaphore permits;
+    // most recently returned first, the evictor scans from the tail
+    private final ConcurrentLinkedDeque<NativeContext> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    ClickHouseConnectionPool(ClickHouseConfig cfg, int maxSize, int minIdle, Duration idleTimeout, Duration maxWait) {
+        this.cfg = cfg;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxSize);
+    }
+
+    ClickHouseConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Unable to get connection: the pool of " + cfg.host() + ":" + cfg.port() + " is closed");
+        }
+        acquire();
+        try {
+            NativeContext ctx;
+            while ((ctx = idle.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                if (isUsable(ctx.nativeClient())) {
+                    return newHandle(ctx);
+                }
+                ctx.nativeClient().silentDisconnect();
+            }
+            return newHandle(ClickHouseConnection.createNativeContext(cfg));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    // statements write into the settings of their connection, each handle starts over from a copy of the pool's
+    private ClickHouseConnection newHandle(NativeContext ctx) {
+        return new ClickHouseConnection(ClickHouseConfig.Builder.builder(cfg).build(), ctx, this);
+    }
+
+    /**
+     * Called once by {@link ClickHouseConnection#close()}.
+     *
+     * @param reusable false if the session is not idle, e.g. an insert is still waiting for data
+     */
+    void release(NativeContext ctx, boolean reusable) {
+        try {
+            if (closed || !reusable || ctx.nativeClient().isBroken()) {
+                ctx.nativeClient().silentDisconnect();
+                return;
+            }
+            idle.offerFirst(ctx);
+            idleCount.incrementAndGet();
+            if (closed) {
+                closeIdle();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Disconnect the idle connections unused for {@code idleTimeout} or broken, then open new ones up to {@code minIdle}.
+     */
+    void evict() {
+        Iterator<NativeContext> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            NativeContext ctx = it.next();
+            // a concurrent borrower may have taken it already
+            if (!isUsable(ctx.nativeClient()) && idle.removeLastOccurrence(ctx)) {
+                idleCount.decrementAndGet();
+                ctx.nativeClient().silentDisconnect();
+            }
+        }
+        while (!closed && idleCount.get() < minIdle && permits.tryAcquire()) {
+            try {
+                idle.offerLast(ClickHouseConnection.createNativeContext(cfg));
+                idleCount.incrementAndGet();
+            } catch (SQLException ex) {
+                LOG.warn("failed to open idle connection to {}:{}, {}", cfg.host(), cfg.port(), ex.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    int idleCount() {
+        return idleCount.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        NativeContext ctx;
+        while ((ctx = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            ctx.nativeClient().silentDisconnect();
+        }
+    }
+
+    private boolean isUsable(NativeClient client) {
+        return !client.isBroken() && client.idleTime().compareTo(idleTimeout) < 0;
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        try {
+            if (!permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Unable to get connection: the pool of " + cfg.host() + ":" + cfg.port()
+                        + " is exhausted after waiting " + maxWait.toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+    }
+}
@@ -26,10 +26,13 @@ import com.github.housepower.misc.DateTimeUtil;
 import com.github.housepower.misc.Validate;
 import com.github.housepower.protocol.DataResponse;
 import com.github.housepower.settings.ClickHouseConfig;
+import com.github.housepower.stream.QueryResult;
 
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -52,6 +55,9 @@ public class ClickHouseResultSet implements SQLResultSet {
     private final String table;
     private final Block header;
     private final CheckedIterator<DataResponse, SQLException> dataResponses;
+    // cancelled on close if not fully read, null if the result set isn't backed by a query
+    @Nullable
+    private final QueryResult queryResult;
 
     private boolean isFirst = false;
     private boolean isAfterLast = false;
@@ -63,12 +69,31 @@ public class ClickHouseResultSet implements SQLResultSet {
                                String table,
                                Block header,
                                CheckedIterator<DataResponse, SQLException> dataResponses) {
+        this(statement, cfg, db, table, header, dataResponses, null);
+    }
+
+    public ClickHouseResultSet(ClickHouseStatement statement,
+                               ClickHouseConfig cfg,
+                               String db,
+                               String table,
+                               QueryResult queryResult) throws SQLException {
+        this(statement, cfg, db, table, queryResult.header(), queryResult.data(), queryResult);
+    }
+
+    private ClickHouseResultSet(ClickHouseStatement statement,
+                                ClickHouseConfig cfg,
+                                String db,
+                                String table,
+                                Block header,
+                                CheckedIterator<DataResponse, SQLException> dataResponses,
+                                @Nullable QueryResult queryResult) {
         this.statement = statement;
         this.cfg = cfg;
         this.db = db;
         this.table = table;
         this.header = header;
         this.dataResponses = dataResponses;
+        this.queryResult = queryResult;
     }
 
     @Override
@@ -153,66 +178,37 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public boolean getBoolean(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return false;
-        }
-        Number ndata = (Number) data;
-        return (ndata.shortValue() != 0);
+        return getInternalColumn(position).shortValue(currentRowNum) != 0;
     }
 
     @Override
     public byte getByte(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return 0;
-        }
-        return ((Number) data).byteValue();
+        return getInternalColumn(position).byteValue(currentRowNum);
     }
 
     @Override
     public short getShort(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return 0;
-        }
-        return ((Number) data).shortValue();
+        return getInternalColumn(position).shortValue(currentRowNum);
     }
 
     @Override
     public int getInt(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return 0;
-        }
-        return ((Number) data).intValue();
+        return getInternalColumn(position).intValue(currentRowNum);
     }
 
     @Override
     public long getLong(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return 0;
-        }
-        return ((Number) data).longValue();
+        return getInternalColumn(position).longValue(currentRowNum);
     }
 
     @Override
     public float getFloat(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return 0;
-        }
-        return ((Number) data).floatValue();
+        return getInternalColumn(position).floatValue(currentRowNum);
     }
 
     @Override
     public double getDouble(int position) throws SQLException {
-        Object data = getInternalObject(position);
-        if (data == null) {
-            return 0;
-        }
-        return ((Number) data).doubleValue();
+        return getInternalColumn(position).doubleValue(currentRowNum);
     }
 
     @Override
@@ -267,7 +263,14 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public byte[] getBytes(int position) throws SQLException {
-        Object data = getInternalObject(position);
+        IColumn column = getInternalColumn(position);
+        ByteBuffer view = column.bytesView(currentRowNum);
+        if (view != null) {
+            byte[] bytes = new byte[view.remaining()];
+            view.get(bytes);
+            return bytes;
+        }
+        Object data = column.value(currentRowNum);
         if (data == null) {
             return null;
         }
@@ -277,6 +280,19 @@ public class ClickHouseResultSet implements SQLResultSet {
         throw new ClickHouseSQLException(-1, "Currently not support getBytes from class: " + data.getClass());
     }
 
+    /**
+     * Raw bytes of a String value as a read-only view, without decoding or copying them.
+     */
+    public ByteBuffer getByteBuffer(int position) throws SQLException {
+        IColumn column = getInternalColumn(position);
+        ByteBuffer view = column.bytesView(currentRowNum);
+        if (view != null) {
+            return view;
+        }
+        byte[] bytes = getBytes(position);
+        return bytes == null ? null : ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
     @Override
     public URL getURL(int position) throws SQLException {
         String data = this.getString(position);
@@ -316,12 +332,17 @@ public class ClickHouseResultSet implements SQLResultSet {
     }
 
     private Object getInternalObject(int position) throws SQLException {
+        return getInternalColumn(position).value(currentRowNum);
+    }
+
+    // the primitive getters read the column directly, null values read as 0
+    private IColumn getInternalColumn(int position) throws SQLException {
         LOG.trace("get object at row: {}, column position: {} from block with column count: {}, row count: {}",
                 currentRowNum, position, currentBlock.columnCnt(), currentBlock.rowCnt());
         Validate.isTrue(currentRowNum >= 0 && currentRowNum < currentBlock.rowCnt(),
                 "No row information was obtained. You must call ResultSet.next() before that.");
-        IColumn column = (lastFetchBlock = currentBlock).getColumn((lastFetchColumnIdx = position - 1));
-        return column.value((lastFetchRowIdx = currentRowNum));
+        lastFetchRowIdx = currentRowNum;
+        return (lastFetchBlock = currentBlock).getColumn((lastFetchColumnIdx = position - 1));
     }
 
     @Override
@@ -382,7 +403,7 @@ public class ClickHouseResultSet implements SQLResultSet {
         Validate.isTrue(lastFetchBlock != null, "Please call Result.next()");
         Validate.isTrue(lastFetchColumnIdx >= 0, "Please call Result.getXXX()");
         Validate.isTrue(lastFetchRowIdx >= 0 && lastFetchRowIdx < lastFetchBlock.rowCnt(), "Please call Result.next()");
-        return lastFetchBlock.getColumn(lastFetchColumnIdx).value(lastFetchRowIdx) == null;
+        return lastFetchBlock.getColumn(lastFetchColumnIdx).isNull(lastFetchRowIdx);
     }
 
     @Override
@@ -417,11 +438,15 @@ public class ClickHouseResultSet implements SQLResultSet {
 
     @Override
     public void close() throws SQLException {
-        // TODO check if query responses are completed
-        //  1. if completed, just set isClosed = true
-        //  2. if not, cancel query and consume the rest responses
+        if (isClosed) {
+            return;
+        }
         LOG.debug("close ResultSet");
         this.isClosed = true;
+        // stop the query if it's still running and drop the unread blocks, the connection is ready for the next query
+        if (queryResult != null) {
+            queryResult.cancel();
+        }
     }
 
     @Override
@@ -86,6 +86,6 @@ public class ClickHouseResultSetBuilder {
     public ClickHouseResultSet build() throws SQLException {
         Validate.ensure(cfg != null);
         QueryResult queryResult = this.queryResultBuilder.build();
-        return new ClickHouseResultSet(null, cfg, db, table, queryResult.header(), queryResult.data());
+        return new ClickHouseResultSet(null, cfg, db, table, queryResult);
     }
 }
@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc;
+
+import com.github.housepower.log.Logger;
+import com.github.housepower.log.LoggerFactory;
+import com.github.housepower.misc.CheckedFunction;
+import com.github.housepower.misc.NamedThreadFactory;
+
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runs a read-only query on a first host, and on a second host if no header arrived within the hedge delay.
+ * The first result wins. The other query is cancelled as soon as it's sent, a Cancel sent before the query
+ * would be ignored, then its result is drained and its connection closed once its header arrived.
+ * <p>
+ * Without a fixed delay, the delay is the p95 of the recent header latencies of the winning attempts.
+ */
+final class HedgedQueryExecutor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgedQueryExecutor.class);
+
+    private static final int LATENCY_SAMPLES = 256;
+    // below this many samples the p95 is meaningless
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    static final Duration DEFAULT_DELAY = Duration.ofMillis(50);
+
+    /**
+     * The query on one host. {@link #execute()} runs on a worker thread, {@link #close(ResultSet)} is called once
+     * it completed.
+     */
+    interface Task {
+
+        /**
+         * Send the query, returns once its header arrived.
+         */
+        ResultSet execute() throws SQLException;
+
+        /**
+         * Ask the server to stop the query once it's sent, called from another thread while {@link #execute()}
+         * may still run.
+         */
+        void cancel();
+
+        /**
+         * Stop reading the result, if any, and give back the connection.
+         */
+        void close(@Nullable ResultSet resultSet);
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(new NamedThreadFactory("clickhouse-hedged-query"));
+    // ring of recent header latencies in nanoseconds
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicLong latencyCount = new AtomicLong();
+
+    /**
+     * Closing the result set cancels the query if it's unfinished and drains it, so a pooled connection is
+     * given back ready for the next query.
+     */
+    static Task task(ClickHouseConnection connection, String query) {
+        return new Task() {
+            @Override
+            public ResultSet execute() throws SQLException {
+                return connection.createStatement().executeQuery(query);
+            }
+
+            @Override
+            public void cancel() {
+                try {
+                    connection.cancelQueryOnceSent();
+                } catch (SQLException e) {
+                    // close() drains or discards the connection anyway
+                    LOG.debug("failed to cancel hedged query", e);
+                }
+            }
+
+            @Override
+            public void close(@Nullable ResultSet resultSet) {
+                try {
+                    if (resultSet != null) {
+                        resultSet.close();
+                    }
+                } catch (SQLException e) {
+                    // the client is broken now, the pool doesn't take it back
+                    LOG.debug("failed to close hedged result", e);
+                }
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOG.debug("failed to close hedged connection", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param hedgeUrl host of the second query, null to never hedge
+     */
+    <T> T execute(String url, @Nullable String hedgeUrl, @Nullable Duration fixedDelay,
+                  CheckedFunction<String, Task, SQLException> connector,
+                  CheckedFunction<ResultSet, T, SQLException> handler) throws SQLException {
+        Attempt first = new Attempt(connector.apply(url));
+        Attempt winner = hedgeUrl == null ? first : null;
+        Attempt second = null;
+        try {
+            if (winner == null && !first.await(delayNanos(fixedDelay))) {
+                LOG.debug("no header from {} within the hedge delay, send the query to {}", url, hedgeUrl);
+                try {
+                    second = new Attempt(connector.apply(hedgeUrl));
+                } catch (SQLException ex) {
+                    LOG.warn("failed to connect to {} for hedged query, {}", hedgeUrl, ex.getMessage());
+                }
+            }
+            winner = second == null ? first : awaitFirst(first, second);
+            ResultSet resultSet = winner.result();
+            // of the winning attempt alone, the hedge delay would push the p95 up exactly when hosts are slow
+            recordLatency(winner.headerNanos);
+            return handler.apply(resultSet);
+        } finally {
+            if (winner != null) {
+                winner.close();
+            }
+            if (winner != first) {
+                first.cancelAndClose();
+            }
+            if (second != null && winner != second) {
+                second.cancelAndClose();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    long delayNanos(@Nullable Duration fixedDelay) {
+        if (fixedDelay != null) {
+            return fixedDelay.toNanos();
+        }
+        int n = (int) Math.min(latencyCount.get(), LATENCY_SAMPLES);
+        if (n < MIN_LATENCY_SAMPLES) {
+            return DEFAULT_DELAY.toNanos();
+        }
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted[(int) (n * 0.95)];
+    }
+
+    void recordLatency(long nanos) {
+        latencies.set((int) (latencyCount.getAndIncrement() % LATENCY_SAMPLES), nanos);
+    }
+
+    // the first successful attempt, or the first attempt if both failed
+    private static Attempt awaitFirst(Attempt first, Attempt second) throws SQLException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        first.header.thenRun(() -> done.complete(null));
+        second.header.thenRun(() -> done.complete(null));
+        CompletableFuture.allOf(first.header, second.header).whenComplete((v, ex) -> done.complete(null));
+        try {
+            done.get();
+        } catch (ExecutionException impossible) {
+            throw new IllegalStateException(impossible);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the hedged query", e);
+        }
+        if (first.succeeded()) {
+            return first;
+        }
+        return second.succeeded() ? second : first;
+    }
+
+    private final class Attempt {
+        private final Task task;
+        private final CompletableFuture<ResultSet> header = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        // time to header of this attempt, set before the header completes
+        private volatile long headerNanos;
+
+        Attempt(Task task) {
+            this.task = task;
+            executor.execute(() -> {
+                try {
+                    ResultSet resultSet = task.execute();
+                    headerNanos = System.nanoTime() - start;
+                    header.complete(resultSet);
+                } catch (Throwable th) {
+                    header.completeExceptionally(th);
+                }
+            });
+        }
+
+        boolean await(long nanos) throws SQLException {
+            try {
+                header.get(nanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException ignore) {
+                // rethrown by result()
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the hedged query", e);
+            }
+            return true;
+        }
+
+        boolean succeeded() {
+            return header.isDone() && !header.isCompletedExceptionally();
+        }
+
+        ResultSet result() throws SQLException {
+            try {
+                return header.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof SQLException ? (SQLException) cause : new SQLException(cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the hedged query", e);
+            }
+        }
+
+        void close() {
+            header.whenComplete((resultSet, ex) -> task.close(resultSet));
+        }
+
+        // the loser may stall before its header, so it's cancelled without waiting for it
+        void cancelAndClose() {
+            task.cancel();
+            close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc;
+
+import com.github.housepower.settings.ClickHouseConfig;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Health of one host, probed over a persistent connection and tracking an EWMA of the ping latency.
+ */
+final class HostHealth implements AutoCloseable {
+
+    // weight of the latest sample in the latency EWMA
+    private static final double LATENCY_EWMA_ALPHA = 0.3;
+
+    private final String url;
+    private final ClickHouseDriver driver;
+    private final AtomicBoolean probing = new AtomicBoolean();
+    // a probe running while closed closes its connection when it finishes
+    private volatile boolean closed;
+    // only touched by the thread holding `probing`
+    @Nullable
+    private ClickHouseConnection probe;
+    // NaN until the first successful ping
+    private volatile double latencyNanos = Double.NaN;
+
+    HostHealth(String url, ClickHouseDriver driver) {
+        this.url = url;
+        this.driver = driver;
+    }
+
+    String url() {
+        return url;
+    }
+
+    /**
+     * @return EWMA of the ping latency in nanoseconds, NaN if never probed
+     */
+    double latencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Ping the host, connecting the probe first if needed. A probe still running from a previous check fails.
+     */
+    boolean probe(ClickHouseConfig cfg, Duration timeout) {
+        if (closed || !probing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (probe == null || probe.isClosed()) {
+                probe = driver.connect(url, ClickHouseConfig.Builder.builder(cfg)
+                        .connectTimeout(timeout)
+                        .queryTimeout(timeout)
+                        .build());
+            }
+            long start = System.nanoTime();
+            if (!probe.ping(timeout)) {
+                closeProbe();
+                return false;
+            }
+            double sample = System.nanoTime() - start;
+            double prev = latencyNanos;
+            latencyNanos = Double.isNaN(prev) ? sample : prev + LATENCY_EWMA_ALPHA * (sample - prev);
+            return true;
+        } catch (Exception e) {
+            closeProbe();
+            return false;
+        } finally {
+            probing.set(false);
+            // a close() that failed its CAS while this probe ran left the connection to us
+            if (closed) {
+                close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (probing.compareAndSet(false, true)) {
+            try {
+                closeProbe();
+            } finally {
+                probing.set(false);
+            }
+        }
+    }
+
+    private void closeProbe() {
+        if (probe != null) {
+            try {
+                probe.close();
+            } catch (SQLException ignore) {
+            }
+            probe = null;
+        }
+    }
+}
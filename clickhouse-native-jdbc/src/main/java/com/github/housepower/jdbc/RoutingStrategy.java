@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc;
+
+/**
+ * How {@link BalancedClickhouseDataSource} picks the host of a new connection among the enabled hosts.
+ * Latency aware strategies rely on {@link BalancedClickhouseDataSource#scheduleActualization(int, java.util.concurrent.TimeUnit)},
+ * hosts not probed yet are picked at random.
+ */
+public enum RoutingStrategy {
+    /**
+     * uniformly random host
+     */
+    RANDOM,
+    /**
+     * hosts in turn
+     */
+    ROUND_ROBIN,
+    /**
+     * host with the lowest ping latency
+     */
+    LEAST_LATENCY,
+    /**
+     * lower ping latency of two random hosts, spreads the load better than {@link #LEAST_LATENCY}
+     */
+    POWER_OF_TWO_CHOICES,
+    /**
+     * the same host for the same routing key as long as it's enabled, by rendezvous hashing,
+     * see {@link BalancedClickhouseDataSource#getConnectionByKey(String)}, connections without key go to a random host
+     */
+    STICKY_BY_KEY
+}
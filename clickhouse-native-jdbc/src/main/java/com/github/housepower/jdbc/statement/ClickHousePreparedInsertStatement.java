@@ -73,6 +73,9 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
     private final String fullQuery;
     private final String insertQuery;
     private boolean blockInit;
+    // columns taking unboxed values, bound once per sample block
+    private boolean[] longColumns;
+    private boolean[] doubleColumns;
 
     public ClickHousePreparedInsertStatement(int posOfData,
                                              String fullQuery,
@@ -96,6 +99,48 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
         block.setObject(columnIdx, convertToCkDataType(column.type(), x));
     }
 
+    @Override
+    public void setByte(int paramPosition, byte x) throws SQLException {
+        if (!setLongIfBound(paramPosition, x)) {
+            setObject(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setShort(int paramPosition, short x) throws SQLException {
+        if (!setLongIfBound(paramPosition, x)) {
+            setObject(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setInt(int paramPosition, int x) throws SQLException {
+        if (!setLongIfBound(paramPosition, x)) {
+            setObject(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setLong(int paramPosition, long x) throws SQLException {
+        if (!setLongIfBound(paramPosition, x)) {
+            setObject(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setFloat(int paramPosition, float x) throws SQLException {
+        if (!setDoubleIfBound(paramPosition, x)) {
+            setObject(paramPosition, x);
+        }
+    }
+
+    @Override
+    public void setDouble(int paramPosition, double x) throws SQLException {
+        if (!setDoubleIfBound(paramPosition, x)) {
+            setObject(paramPosition, x);
+        }
+    }
+
     @Override
     public boolean execute() throws SQLException {
         return executeQuery() != null;
@@ -183,9 +228,40 @@ public class ClickHousePreparedInsertStatement extends AbstractPreparedStatement
             this.block.initWriteBuffer();
             this.blockInit = true;
             new ValuesWithParametersNativeInputFormat(posOfData, fullQuery).fill(block);
+            bindPrimitiveColumns();
         });
     }
 
+    private void bindPrimitiveColumns() throws SQLException {
+        longColumns = new boolean[block.columnCnt()];
+        doubleColumns = new boolean[block.columnCnt()];
+        for (int i = 0; i < block.columnCnt(); i++) {
+            IDataType<?, ?> type = block.getColumn(i).type();
+            longColumns[i] = type instanceof BaseDataTypeInt;
+            doubleColumns[i] = type instanceof BaseDataTypeFloat;
+        }
+    }
+
+    private boolean setLongIfBound(int paramPosition, long x) throws SQLException {
+        initBlockIfPossible();
+        int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
+        if (!longColumns[columnIdx]) {
+            return false;
+        }
+        block.setLong(columnIdx, x);
+        return true;
+    }
+
+    private boolean setDoubleIfBound(int paramPosition, double x) throws SQLException {
+        initBlockIfPossible();
+        int columnIdx = block.paramIdx2ColumnIdx(paramPosition - 1);
+        if (!doubleColumns[columnIdx]) {
+            return false;
+        }
+        block.setDouble(columnIdx, x);
+        return true;
+    }
+
     private void addParameters() throws SQLException {
         block.appendRow();
     }
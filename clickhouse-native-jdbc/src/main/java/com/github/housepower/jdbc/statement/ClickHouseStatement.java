@@ -22,12 +22,14 @@ import com.github.housepower.log.Logger;
 import com.github.housepower.log.LoggerFactory;
 import com.github.housepower.misc.ExceptionUtil;
 import com.github.housepower.misc.Validate;
+import com.github.housepower.stream.QueryListener;
 import com.github.housepower.stream.QueryResult;
 import com.github.housepower.settings.ClickHouseConfig;
 import com.github.housepower.settings.SettingKey;
 import com.github.housepower.jdbc.wrapper.SQLStatement;
 import com.github.housepower.stream.ValuesNativeInputFormat;
 
+import javax.annotation.Nullable;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -45,6 +47,11 @@ public class ClickHouseStatement implements SQLStatement {
     private static final Pattern SELECT_DB_TABLE = Pattern.compile("(?i)FROM\\s+(\\S+\\.)?(\\S+)");
 
     private ResultSet lastResultSet;
+    private volatile QueryResult lastQueryResult;
+    // true while waiting for the header, cancel() may be called from another thread
+    private volatile boolean executing;
+    @Nullable
+    private QueryListener queryListener;
     protected Block block;
     protected final ClickHouseConnection connection;
     protected final NativeContext nativeContext;
@@ -89,8 +96,14 @@ public class ClickHouseStatement implements SQLStatement {
                 return updateCount;
             }
             updateCount = -1;
-            QueryResult result = connection.sendQueryRequest(query, cfg);
-            lastResultSet = new ClickHouseResultSet(this, cfg, db, table, result.header(), result.data());
+            executing = true;
+            try {
+                QueryResult result = connection.sendQueryRequest(query, cfg, queryListener);
+                lastQueryResult = result;
+                lastResultSet = new ClickHouseResultSet(this, cfg, db, table, result);
+            } finally {
+                executing = false;
+            }
             return 0;
         });
     }
@@ -125,6 +138,9 @@ public class ClickHouseStatement implements SQLStatement {
     public void close() throws SQLException {
         LOG.debug("close Statement");
         this.isClosed = true;
+        if (lastResultSet != null) {
+            lastResultSet.close();
+        }
     }
 
     @Override
@@ -135,8 +151,23 @@ public class ClickHouseStatement implements SQLStatement {
     @Override
     public void cancel() throws SQLException {
         LOG.debug("cancel Statement");
-        // TODO send cancel request and clear responses
-        this.close();
+        // the reading thread gets the end of stream, or an exception, once the server stopped the query
+        QueryResult result = lastQueryResult;
+        if (executing) {
+            connection.cancelQuery();
+        } else if (result != null) {
+            result.requestCancel();
+        }
+    }
+
+    /**
+     * Receive the progress, profile info, totals and extremes of the next queries, reach it with
+     * {@code statement.unwrap(ClickHouseStatement.class)}.
+     *
+     * @param listener null to stop listening
+     */
+    public void setQueryListener(@Nullable QueryListener listener) {
+        this.queryListener = listener;
     }
 
     @Override
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.misc;
+
+import com.github.housepower.serde.BinarySerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Growable {@code byte[]}, cleared and reused across batches without shrinking.
+ */
+public class ByteArrayList extends PrimitiveArrayList {
+    private byte[] array;
+
+    public ByteArrayList() {
+        this(64);
+    }
+
+    public ByteArrayList(int capacity) {
+        this.array = new byte[capacity];
+    }
+
+    public void add(byte value) {
+        ensureRoom();
+        array[size++] = value;
+    }
+
+    public byte get(int idx) {
+        return array[idx];
+    }
+
+    /**
+     * Write all the elements in bulk.
+     */
+    public void writeTo(BinarySerializer serializer) throws IOException {
+        serializer.writeBytes(array, 0, size);
+    }
+
+    @Override
+    protected int capacity() {
+        return array.length;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        array = Arrays.copyOf(array, capacity);
+    }
+}
@@ -32,6 +32,8 @@ public class ClickHouseCityHash {
     private static final long k3 = 0xc949d7c7509e6557L;
     private static final long kMul = 0x9ddfea08eb382d69L;
 
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     private static long toLongLE(byte[] bytes, int offset) {
         return (((long) (bytes[offset + 7] & 255) << 56) +
                 ((long) (bytes[offset + 6] & 255) << 48) +
@@ -105,9 +107,12 @@ public class ClickHouseCityHash {
     }
 
 
-    private static long[] weakHashLen32WithSeeds(
-            long w, long x, long y, long z,
-            long a, long b) {
+    // results are written into out[0] and out[1] to keep hashing allocation free
+    private static void weakHashLen32WithSeeds(byte[] s, int pos, long a, long b, long[] out) {
+        long w = fetch64(s, pos + 0);
+        long x = fetch64(s, pos + 8);
+        long y = fetch64(s, pos + 16);
+        long z = fetch64(s, pos + 24);
 
         a += w;
         b = rotate(b + a + z, 21);
@@ -115,21 +120,11 @@ public class ClickHouseCityHash {
         a += x;
         a += y;
         b += rotate(a, 44);
-        return new long[]{a + z, b + c};
-    }
-
-    private static long[] weakHashLen32WithSeeds(byte[] s, int pos, long a, long b) {
-        return weakHashLen32WithSeeds(
-                fetch64(s, pos + 0),
-                fetch64(s, pos + 8),
-                fetch64(s, pos + 16),
-                fetch64(s, pos + 24),
-                a,
-                b
-        );
+        out[0] = a + z;
+        out[1] = b + c;
     }
 
-    private static long[] cityMurmur(byte[] s, int pos, int len, long seed0, long seed1) {
+    private static void cityMurmur(byte[] s, int pos, int len, long seed0, long seed1, long[] out) {
 
         long a = seed0;
         long b = seed1;
@@ -162,34 +157,40 @@ public class ClickHouseCityHash {
         a = hashLen16(a, c);
         b = hashLen16(d, b);
 
-        return new long[]{a ^ b, hashLen16(b, a)};
+        out[0] = a ^ b;
+        out[1] = hashLen16(b, a);
     }
 
-    private static long[] cityHash128WithSeed(byte[] s, int pos, int len, long seed0, long seed1) {
+    private static void cityHash128WithSeed(byte[] s, int pos, int len, long seed0, long seed1, long[] out) {
         if (len < 128) {
-            return cityMurmur(s, pos, len, seed0, seed1);
+            cityMurmur(s, pos, len, seed0, seed1, out);
+            return;
         }
 
-        long[] v = new long[2], w = new long[2];
+        long v0, v1, w0, w1;
         long x = seed0;
         long y = seed1;
         long z = k1 * len;
-        v[0] = rotate(y ^ k1, 49) * k1 + fetch64(s, pos);
-        v[1] = rotate(v[0], 42) * k1 + fetch64(s, pos + 8);
-        w[0] = rotate(y + z, 35) * k1 + x;
-        w[1] = rotate(x + fetch64(s, pos + 88), 53) * k1;
+        v0 = rotate(y ^ k1, 49) * k1 + fetch64(s, pos);
+        v1 = rotate(v0, 42) * k1 + fetch64(s, pos + 8);
+        w0 = rotate(y + z, 35) * k1 + x;
+        w1 = rotate(x + fetch64(s, pos + 88), 53) * k1;
 
         // This is the same inner loop as CityHash64(), manually unrolled.
         do {
-            x = rotate(x + y + v[0] + fetch64(s, pos + 16), 37) * k1;
-            y = rotate(y + v[1] + fetch64(s, pos + 48), 42) * k1;
+            x = rotate(x + y + v0 + fetch64(s, pos + 16), 37) * k1;
+            y = rotate(y + v1 + fetch64(s, pos + 48), 42) * k1;
 
-            x ^= w[1];
-            y ^= v[0];
+            x ^= w1;
+            y ^= v0;
 
-            z = rotate(z ^ w[0], 33);
-            v = weakHashLen32WithSeeds(s, pos, v[1] * k1, x + w[0]);
-            w = weakHashLen32WithSeeds(s, pos + 32, z + w[1], y);
+            z = rotate(z ^ w0, 33);
+            weakHashLen32WithSeeds(s, pos, v1 * k1, x + w0, out);
+            v0 = out[0];
+            v1 = out[1];
+            weakHashLen32WithSeeds(s, pos + 32, z + w1, y, out);
+            w0 = out[0];
+            w1 = out[1];
 
             {
                 long swap = z;
@@ -197,13 +198,17 @@ public class ClickHouseCityHash {
                 x = swap;
             }
             pos += 64;
-            x = rotate(x + y + v[0] + fetch64(s, pos + 16), 37) * k1;
-            y = rotate(y + v[1] + fetch64(s, pos + 48), 42) * k1;
-            x ^= w[1];
-            y ^= v[0];
-            z = rotate(z ^ w[0], 33);
-            v = weakHashLen32WithSeeds(s, pos, v[1] * k1, x + w[0]);
-            w = weakHashLen32WithSeeds(s, pos + 32, z + w[1], y);
+            x = rotate(x + y + v0 + fetch64(s, pos + 16), 37) * k1;
+            y = rotate(y + v1 + fetch64(s, pos + 48), 42) * k1;
+            x ^= w1;
+            y ^= v0;
+            z = rotate(z ^ w0, 33);
+            weakHashLen32WithSeeds(s, pos, v1 * k1, x + w0, out);
+            v0 = out[0];
+            v1 = out[1];
+            weakHashLen32WithSeeds(s, pos + 32, z + w1, y, out);
+            w0 = out[0];
+            w1 = out[1];
             {
                 long swap = z;
                 z = x;
@@ -213,48 +218,62 @@ public class ClickHouseCityHash {
             len -= 128;
         } while (len >= 128);
 
-        y += rotate(w[0], 37) * k0 + z;
-        x += rotate(v[0] + z, 49) * k0;
+        y += rotate(w0, 37) * k0 + z;
+        x += rotate(v0 + z, 49) * k0;
 
         // If 0 < len < 128, hash up to 4 chunks of 32 bytes each from the end of s.
         for (int tail_done = 0; tail_done < len; ) {
             tail_done += 32;
-            y = rotate(y - x, 42) * k0 + v[1];
-            w[0] += fetch64(s, pos + len - tail_done + 16);
-            x = rotate(x, 49) * k0 + w[0];
-            w[0] += v[0];
-            v = weakHashLen32WithSeeds(s, pos + len - tail_done, v[0], v[1]);
+            y = rotate(y - x, 42) * k0 + v1;
+            w0 += fetch64(s, pos + len - tail_done + 16);
+            x = rotate(x, 49) * k0 + w0;
+            w0 += v0;
+            weakHashLen32WithSeeds(s, pos + len - tail_done, v0, v1, out);
+            v0 = out[0];
+            v1 = out[1];
         }
 
         // At this point our 48 bytes of state should contain more than
         // enough information for a strong 128-bit hash.  We use two
         // different 48-byte-to-8-byte hashes to get a 16-byte final result.
 
-        x = hashLen16(x, v[0]);
-        y = hashLen16(y, w[0]);
+        x = hashLen16(x, v0);
+        y = hashLen16(y, w0);
 
-        return new long[]{
-                hashLen16(x + v[1], w[1]) + y,
-                hashLen16(x + w[1], y + v[1])
-        };
+        out[0] = hashLen16(x + v1, w1) + y;
+        out[1] = hashLen16(x + w1, y + v1);
     }
 
     public static long[] cityHash128(byte[] s, int pos, int len) {
+        long[] out = new long[2];
+        cityHash128(s, pos, len, out);
+        return out;
+    }
+
+    /**
+     * Same as {@link #cityHash128(byte[], int, int)}, but writes the 128-bit hash into {@code out[0]} and
+     * {@code out[1]} instead of allocating a new array.
+     */
+    public static void cityHash128(byte[] s, int pos, int len, long[] out) {
 
         if (len >= 16) {
-            return cityHash128WithSeed(
+            cityHash128WithSeed(
                     s, pos + 16,
                     len - 16,
                     fetch64(s, pos) ^ k3,
-                    fetch64(s, pos + 8));
+                    fetch64(s, pos + 8),
+                    out);
+            return;
         }
         if (len >= 8) {
-            return cityHash128WithSeed(
-                    new byte[0], 0, 0,
+            cityHash128WithSeed(
+                    EMPTY_BYTES, 0, 0,
                     fetch64(s, pos) ^ (len * k0),
-                    fetch64(s, pos + len - 8) ^ k1);
+                    fetch64(s, pos + len - 8) ^ k1,
+                    out);
+            return;
         }
-        return cityHash128WithSeed(s, pos, len, k0, k1);
+        cityHash128WithSeed(s, pos, len, k0, k1, out);
     }
 
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.misc;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ConcurrentBoundedCache is a lock-free cache based on <code>ConcurrentHashMap</code>, holding at most
+ * {@code maxSize} entries. Hits don't write, once full an arbitrary entry is evicted to make room.
+ */
+public class ConcurrentBoundedCache<K, V> {
+
+    private final int maxSize;
+    private final ConcurrentMap<K, V> map;
+
+    public ConcurrentBoundedCache(int maxSize) {
+        Validate.ensure(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+    }
+
+    @Nullable
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * @return the value already cached for {@code key} if another thread won the race, otherwise {@code value}
+     */
+    public V putIfAbsent(K key, V value) {
+        if (map.size() >= maxSize) {
+            evictOne();
+        }
+        V prev = map.putIfAbsent(key, value);
+        return prev != null ? prev : value;
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    private void evictOne() {
+        Iterator<K> it = map.keySet().iterator();
+        if (it.hasNext()) {
+            map.remove(it.next());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.misc;
+
+/**
+ * Size bookkeeping and growth shared by the growable primitive arrays.
+ */
+abstract class PrimitiveArrayList {
+    protected int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Make room for one more element, doubling the capacity when full.
+     */
+    protected void ensureRoom() {
+        if (size == capacity()) {
+            grow(Math.max(16, capacity() * 2));
+        }
+    }
+
+    protected abstract int capacity();
+
+    protected abstract void grow(int capacity);
+}
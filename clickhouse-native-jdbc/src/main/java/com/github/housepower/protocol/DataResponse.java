@@ -35,6 +35,26 @@ public class DataResponse implements Response {
         return new DataResponse(name, block);
     }
 
+    /**
+     * Like {@link #readFrom}, but the block is skipped without decoding, the response holds an empty block.
+     */
+    public static DataResponse skipFrom(
+            BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
+        return new DataResponse(skipBlockFrom(deserializer, info), new Block());
+    }
+
+    // skips a named block packet, which is compressed like the data blocks, and returns its name
+    static String skipBlockFrom(
+            BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
+        String name = deserializer.readUTF8StringBinary();
+
+        deserializer.maybeEnableCompressed();
+        Block.skipFrom(deserializer, info);
+        deserializer.maybeDisableCompressed();
+
+        return name;
+    }
+
     private final String name;
 
     private final Block block;
@@ -25,7 +25,19 @@ public class ExtremesResponse implements Response {
 
     public static ExtremesResponse readFrom(
             BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
-        return new ExtremesResponse(deserializer.readUTF8StringBinary(), Block.readFrom(deserializer, info));
+        String name = deserializer.readUTF8StringBinary();
+
+        // compressed like the data blocks
+        deserializer.maybeEnableCompressed();
+        Block block = Block.readFrom(deserializer, info);
+        deserializer.maybeDisableCompressed();
+
+        return new ExtremesResponse(name, block);
+    }
+
+    public static ExtremesResponse skipFrom(
+            BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
+        return new ExtremesResponse(DataResponse.skipBlockFrom(deserializer, info), new Block());
     }
 
     private final String name;
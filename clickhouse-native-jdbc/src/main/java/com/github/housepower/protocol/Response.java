@@ -26,11 +26,20 @@ public interface Response {
     ProtoType type();
 
     static Response readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info) throws IOException, SQLException {
+        return readFrom(deserializer, info, false);
+    }
+
+    /**
+     * @param skipData skip the blocks of Data, Totals and Extremes without decoding them, their responses hold
+     *                 empty blocks. Used to drain the responses nobody will read.
+     */
+    static Response readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info, boolean skipData)
+            throws IOException, SQLException {
         switch ((int) deserializer.readVarInt()) {
             case 0:
                 return HelloResponse.readFrom(deserializer);
             case 1:
-                return DataResponse.readFrom(deserializer, info);
+                return skipData ? DataResponse.skipFrom(deserializer, info) : DataResponse.readFrom(deserializer, info);
             case 2:
                 throw ExceptionResponse.readExceptionFrom(deserializer);
             case 3:
@@ -42,9 +51,9 @@ public interface Response {
             case 6:
                 return ProfileInfoResponse.readFrom(deserializer);
             case 7:
-                return TotalsResponse.readFrom(deserializer, info);
+                return skipData ? TotalsResponse.skipFrom(deserializer, info) : TotalsResponse.readFrom(deserializer, info);
             case 8:
-                return ExtremesResponse.readFrom(deserializer, info);
+                return skipData ? ExtremesResponse.skipFrom(deserializer, info) : ExtremesResponse.readFrom(deserializer, info);
             case 9:
                 throw new NotImplementedException("RESPONSE_TABLES_STATUS_RESPONSE");
             default:
@@ -25,13 +25,25 @@ public class TotalsResponse implements Response {
 
     public static TotalsResponse readFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info)
             throws IOException, SQLException {
-        return new TotalsResponse(deserializer.readUTF8StringBinary(), Block.readFrom(deserializer, info));
+        String name = deserializer.readUTF8StringBinary();
+
+        // compressed like the data blocks
+        deserializer.maybeEnableCompressed();
+        Block block = Block.readFrom(deserializer, info);
+        deserializer.maybeDisableCompressed();
+
+        return new TotalsResponse(name, block);
+    }
+
+    public static TotalsResponse skipFrom(BinaryDeserializer deserializer, NativeContext.ServerContext info)
+            throws IOException, SQLException {
+        return new TotalsResponse(DataResponse.skipBlockFrom(deserializer, info), new Block());
     }
 
     private final String name;
     private final Block block;
 
-    TotalsResponse(String name, Block block) {
+    public TotalsResponse(String name, Block block) {
         this.name = name;
         this.block = block;
     }
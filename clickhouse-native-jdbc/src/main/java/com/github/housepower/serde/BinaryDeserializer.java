@@ -19,14 +19,25 @@ import com.github.housepower.buffer.CompressedBuffedReader;
 import com.github.housepower.misc.Switcher;
 
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 
+@SuppressWarnings("RedundantCast")
 public class BinaryDeserializer {
 
+    // bulk reads copy at most this many bytes at a time and decode them through little-endian views
+    private static final int BULK_BYTES = 8 * 1024;
+
     private final Switcher<BuffedReader> switcher;
+    private final BuffedReader buffedReader;
     private final boolean enableCompress;
+    private final byte[] bulk = new byte[BULK_BYTES];
+    private final ByteBuffer bulkBuffer = ByteBuffer.wrap(bulk).order(ByteOrder.LITTLE_ENDIAN);
 
     public BinaryDeserializer(BuffedReader buffedReader, boolean enableCompress) {
+        this.buffedReader = buffedReader;
         this.enableCompress = enableCompress;
         BuffedReader compressedReader = null;
         if (enableCompress) {
@@ -144,4 +155,82 @@ public class BinaryDeserializer {
         switcher.get().readBinary(bytes);
         return bytes;
     }
+
+    public void readBytes(byte[] dst, int offset, int length) throws IOException {
+        switcher.get().readBinary(dst, offset, length);
+    }
+
+    public void readShorts(short[] dst, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Short.BYTES);
+            fillBulk(n * Short.BYTES).asShortBuffer().get(dst, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void readInts(int[] dst, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Integer.BYTES);
+            fillBulk(n * Integer.BYTES).asIntBuffer().get(dst, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void readLongs(long[] dst, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Long.BYTES);
+            fillBulk(n * Long.BYTES).asLongBuffer().get(dst, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void readFloats(float[] dst, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Float.BYTES);
+            fillBulk(n * Float.BYTES).asFloatBuffer().get(dst, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void readDoubles(double[] dst, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Double.BYTES);
+            fillBulk(n * Double.BYTES).asDoubleBuffer().get(dst, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Read past {@code length} bytes, copying them through the bulk buffer without allocating.
+     */
+    public void skipBytes(long length) throws IOException {
+        while (length > 0) {
+            int n = (int) Math.min(length, BULK_BYTES);
+            switcher.get().readBinary(bulk, 0, n);
+            length -= n;
+        }
+    }
+
+    /**
+     * Read past a length prefixed byte string, the counterpart of {@link #readBytesBinary()}.
+     */
+    public void skipBytesBinary() throws IOException {
+        skipBytes(readVarInt());
+    }
+
+    // one bulk copy out of the reader, the returned view covers exactly the bytes read
+    private ByteBuffer fillBulk(int bytes) throws IOException {
+        switcher.get().readBinary(bulk, 0, bytes);
+        ((Buffer) bulkBuffer).position(0).limit(bytes);
+        return bulkBuffer;
+    }
+
+    public void close() throws IOException {
+        buffedReader.close();
+    }
 }
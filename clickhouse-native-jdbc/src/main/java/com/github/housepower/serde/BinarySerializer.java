@@ -19,21 +19,39 @@ import com.github.housepower.buffer.CompressedBuffedWriter;
 import com.github.housepower.misc.Switcher;
 import com.github.housepower.settings.ClickHouseDefines;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
+@SuppressWarnings("RedundantCast")
 public class BinarySerializer {
 
+    // bulk writes encode at most this many bytes at a time through little-endian views
+    private static final int BULK_BYTES = 8 * 1024;
+
     private final Switcher<BuffedWriter> switcher;
+    private final BuffedWriter writer;
+    @Nullable
+    private final BuffedWriter compressWriter;
     private final boolean enableCompress;
+    private final byte[] bulk = new byte[BULK_BYTES];
+    private final ByteBuffer bulkBuffer = ByteBuffer.wrap(bulk).order(ByteOrder.LITTLE_ENDIAN);
 
     public BinarySerializer(BuffedWriter writer, boolean enableCompress) {
-        this.enableCompress = enableCompress;
-        BuffedWriter compressWriter = null;
-        if (enableCompress) {
-            compressWriter = new CompressedBuffedWriter(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES, writer);
-        }
+        this(writer, enableCompress ? new CompressedBuffedWriter(ClickHouseDefines.SOCKET_SEND_BUFFER_BYTES, writer) : null);
+    }
+
+    /**
+     * @param compressWriter writes compressed frames to {@code writer}, null to disable compression
+     */
+    public BinarySerializer(BuffedWriter writer, @Nullable BuffedWriter compressWriter) {
+        this.writer = writer;
+        this.compressWriter = compressWriter;
+        this.enableCompress = compressWriter != null;
         switcher = new Switcher<>(compressWriter, writer);
     }
 
@@ -148,4 +166,73 @@ public class BinarySerializer {
     public void writeBytes(byte[] bytes) throws IOException {
         switcher.get().writeBinary(bytes);
     }
+
+    public void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        switcher.get().writeBinary(bytes, offset, length);
+    }
+
+    public void writeShorts(short[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Short.BYTES);
+            bulkView().asShortBuffer().put(src, offset, n);
+            switcher.get().writeBinary(bulk, 0, n * Short.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void writeInts(int[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Integer.BYTES);
+            bulkView().asIntBuffer().put(src, offset, n);
+            switcher.get().writeBinary(bulk, 0, n * Integer.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void writeLongs(long[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Long.BYTES);
+            bulkView().asLongBuffer().put(src, offset, n);
+            switcher.get().writeBinary(bulk, 0, n * Long.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void writeFloats(float[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Float.BYTES);
+            bulkView().asFloatBuffer().put(src, offset, n);
+            switcher.get().writeBinary(bulk, 0, n * Float.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    public void writeDoubles(double[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, BULK_BYTES / Double.BYTES);
+            bulkView().asDoubleBuffer().put(src, offset, n);
+            switcher.get().writeBinary(bulk, 0, n * Double.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private ByteBuffer bulkView() {
+        ((Buffer) bulkBuffer).clear();
+        return bulkBuffer;
+    }
+
+    public void close() throws IOException {
+        try {
+            if (compressWriter != null) {
+                compressWriter.close();
+            }
+        } finally {
+            writer.close();
+        }
+    }
 }
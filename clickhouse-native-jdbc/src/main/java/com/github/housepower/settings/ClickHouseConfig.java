@@ -14,6 +14,7 @@
 
 package com.github.housepower.settings;
 
+import com.github.housepower.buffer.codec.CompressionMethod;
 import com.github.housepower.jdbc.ClickhouseJdbcUrlParser;
 import com.github.housepower.misc.CollectionUtil;
 import com.github.housepower.misc.StrUtil;
@@ -39,10 +40,23 @@ public class ClickHouseConfig implements Serializable {
     private final String charset; // use String because Charset is not serializable
     private final Map<SettingKey, Serializable> settings;
     private final boolean tcpKeepAlive;
+    private final boolean useNio;
+    private final CompressionMethod compressMethod;
+    private final int compressParallelism;
+    private final int compressMinFrameBytes;
+    private final float compressMaxRatio;
+    private final int compressSkipFrames;
+    private final int readAheadBlocks;
+    private final long readAheadMaxBytes;
+    private final boolean lazyDecode;
+    private final Duration pingIdleTime;
 
     private ClickHouseConfig(String host, int port, String database, String user, String password,
-                             Duration queryTimeout, Duration connectTimeout, boolean tcpKeepAlive,
-                             String charset, Map<SettingKey, Serializable> settings) {
+                             Duration queryTimeout, Duration connectTimeout, boolean tcpKeepAlive, boolean useNio,
+                             CompressionMethod compressMethod, int compressParallelism, int compressMinFrameBytes,
+                             float compressMaxRatio, int compressSkipFrames, int readAheadBlocks, long readAheadMaxBytes,
+                             boolean lazyDecode,
+                             Duration pingIdleTime, String charset, Map<SettingKey, Serializable> settings) {
         this.host = host;
         this.port = port;
         this.database = database;
@@ -51,6 +65,16 @@ public class ClickHouseConfig implements Serializable {
         this.queryTimeout = queryTimeout;
         this.connectTimeout = connectTimeout;
         this.tcpKeepAlive = tcpKeepAlive;
+        this.useNio = useNio;
+        this.compressMethod = compressMethod;
+        this.compressParallelism = compressParallelism;
+        this.compressMinFrameBytes = compressMinFrameBytes;
+        this.compressMaxRatio = compressMaxRatio;
+        this.compressSkipFrames = compressSkipFrames;
+        this.readAheadBlocks = readAheadBlocks;
+        this.readAheadMaxBytes = readAheadMaxBytes;
+        this.lazyDecode = lazyDecode;
+        this.pingIdleTime = pingIdleTime;
         this.charset = charset;
         this.settings = settings;
     }
@@ -93,7 +117,17 @@ public class ClickHouseConfig implements Serializable {
                 .append("?").append(SettingKey.query_timeout.name()).append("=").append(queryTimeout.getSeconds())
                 .append("&").append(SettingKey.connect_timeout.name()).append("=").append(connectTimeout.getSeconds())
                 .append("&").append(SettingKey.charset.name()).append("=").append(charset)
-                .append("&").append(SettingKey.tcp_keep_alive.name()).append("=").append(tcpKeepAlive);
+                .append("&").append(SettingKey.tcp_keep_alive.name()).append("=").append(tcpKeepAlive)
+                .append("&").append(SettingKey.use_nio.name()).append("=").append(useNio)
+                .append("&").append(SettingKey.compress_method.name()).append("=").append(compressMethod.lowerName())
+                .append("&").append(SettingKey.compress_parallelism.name()).append("=").append(compressParallelism)
+                .append("&").append(SettingKey.compress_min_frame_bytes.name()).append("=").append(compressMinFrameBytes)
+                .append("&").append(SettingKey.compress_max_ratio.name()).append("=").append(compressMaxRatio)
+                .append("&").append(SettingKey.compress_skip_frames.name()).append("=").append(compressSkipFrames)
+                .append("&").append(SettingKey.read_ahead_blocks.name()).append("=").append(readAheadBlocks)
+                .append("&").append(SettingKey.read_ahead_max_bytes.name()).append("=").append(readAheadMaxBytes)
+                .append("&").append(SettingKey.lazy_decode.name()).append("=").append(lazyDecode)
+                .append("&").append(SettingKey.ping_idle_time.name()).append("=").append(pingIdleTime.getSeconds());
 
         for (Map.Entry<SettingKey, Serializable> entry : settings.entrySet()) {
             builder.append("&").append(entry.getKey().name()).append("=").append(entry.getValue());
@@ -105,6 +139,20 @@ public class ClickHouseConfig implements Serializable {
         return settings;
     }
 
+    /**
+     * The settings sent with a query. Unless set explicitly, {@code network_compression_method} follows
+     * {@link #compressMethod()}, so a config copied with another compress method doesn't keep a stale value.
+     */
+    public Map<SettingKey, Serializable> querySettings() {
+        String networkCompressionMethod = compressMethod.networkCompressionMethod();
+        if (networkCompressionMethod == null || settings.containsKey(SettingKey.network_compression_method)) {
+            return settings;
+        }
+        Map<SettingKey, Serializable> querySettings = new HashMap<>(settings);
+        querySettings.put(SettingKey.network_compression_method, networkCompressionMethod);
+        return querySettings;
+    }
+
     public ClickHouseConfig withHostPort(String host, int port) {
         return Builder.builder(this)
                 .host(host)
@@ -172,6 +220,46 @@ public class ClickHouseConfig implements Serializable {
         return tcpKeepAlive;
     }
 
+    public boolean useNio() {
+        return useNio;
+    }
+
+    public CompressionMethod compressMethod() {
+        return compressMethod;
+    }
+
+    public int compressParallelism() {
+        return compressParallelism;
+    }
+
+    public int compressMinFrameBytes() {
+        return compressMinFrameBytes;
+    }
+
+    public float compressMaxRatio() {
+        return compressMaxRatio;
+    }
+
+    public int compressSkipFrames() {
+        return compressSkipFrames;
+    }
+
+    public int readAheadBlocks() {
+        return readAheadBlocks;
+    }
+
+    public long readAheadMaxBytes() {
+        return readAheadMaxBytes;
+    }
+
+    public boolean lazyDecode() {
+        return lazyDecode;
+    }
+
+    public Duration pingIdleTime() {
+        return pingIdleTime;
+    }
+
     public static final class Builder {
         private String host;
         private int port;
@@ -181,6 +269,16 @@ public class ClickHouseConfig implements Serializable {
         private Duration connectTimeout;
         private Duration queryTimeout;
         private boolean tcpKeepAlive;
+        private boolean useNio;
+        private CompressionMethod compressMethod;
+        private int compressParallelism;
+        private int compressMinFrameBytes;
+        private float compressMaxRatio;
+        private int compressSkipFrames;
+        private int readAheadBlocks;
+        private long readAheadMaxBytes;
+        private boolean lazyDecode;
+        private Duration pingIdleTime;
         private Charset charset;
         private Map<SettingKey, Serializable> settings = new HashMap<>();
 
@@ -202,6 +300,16 @@ public class ClickHouseConfig implements Serializable {
                     .queryTimeout(cfg.queryTimeout())
                     .charset(cfg.charset())
                     .tcpKeepAlive(cfg.tcpKeepAlive())
+                    .useNio(cfg.useNio())
+                    .compressMethod(cfg.compressMethod())
+                    .compressParallelism(cfg.compressParallelism())
+                    .compressMinFrameBytes(cfg.compressMinFrameBytes())
+                    .compressMaxRatio(cfg.compressMaxRatio())
+                    .compressSkipFrames(cfg.compressSkipFrames())
+                    .readAheadBlocks(cfg.readAheadBlocks())
+                    .readAheadMaxBytes(cfg.readAheadMaxBytes())
+                    .lazyDecode(cfg.lazyDecode())
+                    .pingIdleTime(cfg.pingIdleTime())
                     .withSettings(cfg.settings());
         }
 
@@ -255,6 +363,56 @@ public class ClickHouseConfig implements Serializable {
             return this;
         }
 
+        public Builder useNio(boolean useNio) {
+            this.withSetting(SettingKey.use_nio, useNio);
+            return this;
+        }
+
+        public Builder compressMethod(CompressionMethod compressMethod) {
+            this.withSetting(SettingKey.compress_method, compressMethod.lowerName());
+            return this;
+        }
+
+        public Builder compressParallelism(int compressParallelism) {
+            this.withSetting(SettingKey.compress_parallelism, compressParallelism);
+            return this;
+        }
+
+        public Builder compressMinFrameBytes(int compressMinFrameBytes) {
+            this.withSetting(SettingKey.compress_min_frame_bytes, compressMinFrameBytes);
+            return this;
+        }
+
+        public Builder compressMaxRatio(float compressMaxRatio) {
+            this.withSetting(SettingKey.compress_max_ratio, compressMaxRatio);
+            return this;
+        }
+
+        public Builder compressSkipFrames(int compressSkipFrames) {
+            this.withSetting(SettingKey.compress_skip_frames, compressSkipFrames);
+            return this;
+        }
+
+        public Builder readAheadBlocks(int readAheadBlocks) {
+            this.withSetting(SettingKey.read_ahead_blocks, readAheadBlocks);
+            return this;
+        }
+
+        public Builder readAheadMaxBytes(long readAheadMaxBytes) {
+            this.withSetting(SettingKey.read_ahead_max_bytes, readAheadMaxBytes);
+            return this;
+        }
+
+        public Builder lazyDecode(boolean lazyDecode) {
+            this.withSetting(SettingKey.lazy_decode, lazyDecode);
+            return this;
+        }
+
+        public Builder pingIdleTime(Duration pingIdleTime) {
+            this.withSetting(SettingKey.ping_idle_time, pingIdleTime);
+            return this;
+        }
+
         public Builder charset(String charset) {
             this.withSetting(SettingKey.charset, charset);
             return this;
@@ -292,13 +450,29 @@ public class ClickHouseConfig implements Serializable {
             this.connectTimeout = (Duration) this.settings.getOrDefault(SettingKey.connect_timeout, Duration.ZERO);
             this.queryTimeout = (Duration) this.settings.getOrDefault(SettingKey.query_timeout, Duration.ZERO);
             this.tcpKeepAlive = (boolean) this.settings.getOrDefault(SettingKey.tcp_keep_alive, false);
+            this.useNio = (boolean) this.settings.getOrDefault(SettingKey.use_nio, false);
+            this.compressMethod = CompressionMethod.of((String) this.settings.getOrDefault(SettingKey.compress_method, "lz4"));
+            this.compressParallelism = ((Number) this.settings.getOrDefault(SettingKey.compress_parallelism, 0)).intValue();
+            this.compressMinFrameBytes = ((Number) this.settings.getOrDefault(SettingKey.compress_min_frame_bytes,
+                    ClickHouseDefines.DEFAULT_COMPRESS_MIN_FRAME_BYTES)).intValue();
+            this.compressMaxRatio = ((Number) this.settings.getOrDefault(SettingKey.compress_max_ratio,
+                    ClickHouseDefines.DEFAULT_COMPRESS_MAX_RATIO)).floatValue();
+            this.compressSkipFrames = ((Number) this.settings.getOrDefault(SettingKey.compress_skip_frames,
+                    ClickHouseDefines.DEFAULT_COMPRESS_SKIP_FRAMES)).intValue();
+            this.readAheadBlocks = ((Number) this.settings.getOrDefault(SettingKey.read_ahead_blocks, 0)).intValue();
+            this.readAheadMaxBytes = ((Number) this.settings.getOrDefault(SettingKey.read_ahead_max_bytes,
+                    ClickHouseDefines.DEFAULT_READ_AHEAD_MAX_BYTES)).longValue();
+            this.lazyDecode = (boolean) this.settings.getOrDefault(SettingKey.lazy_decode, false);
+            this.pingIdleTime = (Duration) this.settings.getOrDefault(SettingKey.ping_idle_time, Duration.ofSeconds(10));
             this.charset = Charset.forName((String) this.settings.getOrDefault(SettingKey.charset, "UTF-8"));
 
             revisit();
             purgeSettings();
 
             return new ClickHouseConfig(
-                    host, port, database, user, password, queryTimeout, connectTimeout, tcpKeepAlive, charset.name(), settings);
+                    host, port, database, user, password, queryTimeout, connectTimeout, tcpKeepAlive, useNio, compressMethod, compressParallelism,
+                    compressMinFrameBytes, compressMaxRatio, compressSkipFrames, readAheadBlocks,
+                    readAheadMaxBytes, lazyDecode, pingIdleTime, charset.name(), settings);
         }
 
         private void revisit() {
@@ -309,6 +483,13 @@ public class ClickHouseConfig implements Serializable {
             if (StrUtil.isBlank(this.database)) this.database = "default";
             if (this.queryTimeout.isNegative()) this.queryTimeout = Duration.ZERO;
             if (this.connectTimeout.isNegative()) this.connectTimeout = Duration.ZERO;
+            if (this.compressParallelism < 0) this.compressParallelism = 0;
+            if (this.compressMinFrameBytes < 0) this.compressMinFrameBytes = 0;
+            if (this.compressMaxRatio < 0) this.compressMaxRatio = 0;
+            if (this.compressSkipFrames < 0) this.compressSkipFrames = 0;
+            if (this.readAheadBlocks < 0) this.readAheadBlocks = 0;
+            if (this.readAheadMaxBytes < 0) this.readAheadMaxBytes = 0;
+            if (this.pingIdleTime.isNegative()) this.pingIdleTime = Duration.ZERO;
         }
 
         private void purgeSettings() {
@@ -320,6 +501,16 @@ public class ClickHouseConfig implements Serializable {
             this.settings.remove(SettingKey.query_timeout);
             this.settings.remove(SettingKey.connect_timeout);
             this.settings.remove(SettingKey.tcp_keep_alive);
+            this.settings.remove(SettingKey.use_nio);
+            this.settings.remove(SettingKey.compress_method);
+            this.settings.remove(SettingKey.compress_parallelism);
+            this.settings.remove(SettingKey.compress_min_frame_bytes);
+            this.settings.remove(SettingKey.compress_max_ratio);
+            this.settings.remove(SettingKey.compress_skip_frames);
+            this.settings.remove(SettingKey.read_ahead_blocks);
+            this.settings.remove(SettingKey.read_ahead_max_bytes);
+            this.settings.remove(SettingKey.lazy_decode);
+            this.settings.remove(SettingKey.ping_idle_time);
             this.settings.remove(SettingKey.charset);
         }
     }
@@ -28,11 +28,22 @@ public class ClickHouseDefines {
     public static final int MAX_BLOCK_BYTES = 1024 * 1024 * 10;
     public static int SOCKET_SEND_BUFFER_BYTES = 1024 * 1024;
     public static int SOCKET_RECV_BUFFER_BYTES = 1024 * 1024;
+    public static long DIRECT_BUFFER_POOL_BYTES = 64L * 1024 * 1024;
 
     public static int COLUMN_BUFFER_BYTES = 1024 * 1024;
+    public static int COLUMN_BUFFER_MIN_BYTES = 8 * 1024;
+    public static long COLUMN_BUFFER_POOL_BYTES = 256L * 1024 * 1024;
 
     public static final int DATA_TYPE_CACHE_SIZE = 1024;
 
     public static final int COMPRESSION_HEADER_LENGTH = 9;
     public static final int CHECKSUM_LENGTH = 16;
+
+    // defaults of compress_min_frame_bytes, compress_max_ratio and compress_skip_frames
+    public static final int DEFAULT_COMPRESS_MIN_FRAME_BYTES = 256;
+    public static final float DEFAULT_COMPRESS_MAX_RATIO = 0.9f;
+    public static final int DEFAULT_COMPRESS_SKIP_FRAMES = 16;
+
+    // default of read_ahead_max_bytes
+    public static final long DEFAULT_READ_AHEAD_MAX_BYTES = 256L * 1024 * 1024;
 }
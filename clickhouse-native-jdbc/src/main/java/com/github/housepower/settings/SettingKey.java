@@ -329,6 +329,12 @@ public class SettingKey implements Serializable {
             .withDescription("Allows you to use more sources than the number of threads - to more evenly distribute work across threads. It is assumed that this is a temporary solution, since it will be possible in the future to make the number of sources equal to the number of threads, but for each source to dynamically select available work for itself.")
             .build();
 
+    public static SettingKey network_compression_method = SettingKey.builder()
+            .withName("network_compression_method")
+            .withType(SettingType.UTF8)
+            .withDescription("Allows you to select the method of data compression when writing.")
+            .build();
+
     public static SettingKey network_zstd_compression_level = SettingKey.builder()
             .withName("network_zstd_compression_level")
             .withType(SettingType.Int64)
@@ -840,6 +846,66 @@ public class SettingKey implements Serializable {
             .withDescription("charset for converting between Bytes and String")
             .build();
 
+    public static SettingKey use_nio = SettingKey.builder()
+            .withName("use_nio")
+            .withType(SettingType.Bool)
+            .withDescription("use SocketChannel with pooled direct buffers instead of blocking Socket streams")
+            .build();
+
+    public static SettingKey compress_method = SettingKey.builder()
+            .withName("compress_method")
+            .withType(SettingType.UTF8)
+            .withDescription("compression method of the native stream, one of lz4, lz4hc, zstd, none")
+            .build();
+
+    public static SettingKey compress_parallelism = SettingKey.builder()
+            .withName("compress_parallelism")
+            .withType(SettingType.Int32)
+            .withDescription("max frames compressed concurrently on the shared worker pool, 0 or 1 compresses on the calling thread")
+            .build();
+
+    public static SettingKey compress_min_frame_bytes = SettingKey.builder()
+            .withName("compress_min_frame_bytes")
+            .withType(SettingType.Int32)
+            .withDescription("frames smaller than this are sent uncompressed")
+            .build();
+
+    public static SettingKey compress_max_ratio = SettingKey.builder()
+            .withName("compress_max_ratio")
+            .withType(SettingType.Float32)
+            .withDescription("frames compressed to more than this ratio of their size are sent uncompressed, above 1 to always compress")
+            .build();
+
+    public static SettingKey compress_skip_frames = SettingKey.builder()
+            .withName("compress_skip_frames")
+            .withType(SettingType.Int32)
+            .withDescription("frames sent uncompressed without trying after a frame didn't compress well")
+            .build();
+
+    public static SettingKey read_ahead_blocks = SettingKey.builder()
+            .withName("read_ahead_blocks")
+            .withType(SettingType.Int32)
+            .withDescription("data blocks read and decoded ahead of the result set on a background thread, 0 to disable")
+            .build();
+
+    public static SettingKey read_ahead_max_bytes = SettingKey.builder()
+            .withName("read_ahead_max_bytes")
+            .withType(SettingType.Int64)
+            .withDescription("estimated decoded size of the blocks read ahead of the result set, one block is always buffered")
+            .build();
+
+    public static SettingKey lazy_decode = SettingKey.builder()
+            .withName("lazy_decode")
+            .withType(SettingType.Bool)
+            .withDescription("keep fixed-width result columns as raw bytes until they are first read")
+            .build();
+
+    public static SettingKey ping_idle_time = SettingKey.builder()
+            .withName("ping_idle_time")
+            .withType(SettingType.Seconds)
+            .withDescription("ping the server before a query only if the connection has been idle this long, 0 to ping before every query")
+            .build();
+
 
     public static Builder builder() {
         return new Builder();
@@ -15,27 +15,65 @@
 package com.github.housepower.stream;
 
 import com.github.housepower.data.Block;
+import com.github.housepower.exception.ClickHouseSQLException;
+import com.github.housepower.log.Logger;
+import com.github.housepower.log.LoggerFactory;
 import com.github.housepower.misc.CheckedIterator;
+import com.github.housepower.misc.CheckedRunnable;
 import com.github.housepower.misc.CheckedSupplier;
 import com.github.housepower.protocol.DataResponse;
 import com.github.housepower.protocol.EOFStreamResponse;
+import com.github.housepower.protocol.ExtremesResponse;
+import com.github.housepower.protocol.ProfileInfoResponse;
+import com.github.housepower.protocol.ProgressResponse;
 import com.github.housepower.protocol.Response;
+import com.github.housepower.protocol.TotalsResponse;
 
+import javax.annotation.Nullable;
 import java.sql.SQLException;
 
 public class ClickHouseQueryResult implements QueryResult {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ClickHouseQueryResult.class);
+
     private final CheckedSupplier<Response, SQLException> responseSupplier;
+    // reads the next response without decoding its block, used to drain the responses nobody will read
+    private final CheckedSupplier<Response, SQLException> skippingSupplier;
+    // sends the Cancel request, null if the query can't be cancelled
+    @Nullable
+    private final CheckedRunnable<SQLException> canceller;
+    @Nullable
+    private final QueryListener listener;
     private Block header;
-    private boolean atEnd;
-    // Progress
-    // Totals
-    // Extremes
-    // ProfileInfo
-    // EndOfStream
+    private volatile boolean atEnd;
+    private volatile boolean cancelRequested;
 
     public ClickHouseQueryResult(CheckedSupplier<Response, SQLException> responseSupplier) {
+        this(responseSupplier, null);
+    }
+
+    public ClickHouseQueryResult(CheckedSupplier<Response, SQLException> responseSupplier,
+                                 @Nullable CheckedRunnable<SQLException> canceller) {
+        this(responseSupplier, responseSupplier, canceller);
+    }
+
+    public ClickHouseQueryResult(CheckedSupplier<Response, SQLException> responseSupplier,
+                                 CheckedSupplier<Response, SQLException> skippingSupplier,
+                                 @Nullable CheckedRunnable<SQLException> canceller) {
+        this(responseSupplier, skippingSupplier, canceller, null);
+    }
+
+    /**
+     * @param listener receives the progress, profile info, totals and extremes of the query, null to drop them
+     */
+    public ClickHouseQueryResult(CheckedSupplier<Response, SQLException> responseSupplier,
+                                 CheckedSupplier<Response, SQLException> skippingSupplier,
+                                 @Nullable CheckedRunnable<SQLException> canceller,
+                                 @Nullable QueryListener listener) {
         this.responseSupplier = responseSupplier;
+        this.skippingSupplier = skippingSupplier;
+        this.canceller = canceller;
+        this.listener = listener;
     }
 
     @Override
@@ -84,16 +122,82 @@ public class ClickHouseQueryResult implements QueryResult {
         }
     }
 
+    @Override
+    public void requestCancel() throws SQLException {
+        if (canceller != null && !atEnd && !cancelRequested) {
+            cancelRequested = true;
+            canceller.run();
+        }
+    }
+
+    /**
+     * {@link #requestCancel()} and drain. The exception the server may end the cancelled query with is only logged,
+     * I/O errors are still thrown.
+     */
+    @Override
+    public void cancel() throws SQLException {
+        requestCancel();
+        try {
+            drain();
+        } catch (ClickHouseSQLException ex) {
+            // the stream ends with the exception, the connection is ready for the next request
+            LOG.debug("cancelled query ended with exception: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * @return true once the responses were read up to the end of stream
+     */
+    public boolean isAtEnd() {
+        return atEnd;
+    }
+
+    /**
+     * Consume the remaining responses up to the end of stream without decoding their blocks, leaving the
+     * connection ready for the next request.
+     */
+    public void drain() throws SQLException {
+        while (!atEnd) {
+            consumeDataResponse(true);
+        }
+    }
+
     private DataResponse consumeDataResponse() throws SQLException {
+        return consumeDataResponse(false);
+    }
+
+    private DataResponse consumeDataResponse(boolean skipData) throws SQLException {
         while (!atEnd) {
-            Response response = responseSupplier.get();
+            Response response;
+            try {
+                response = skipData ? skippingSupplier.get() : responseSupplier.get();
+            } catch (SQLException ex) {
+                // the server ends the stream after an exception, and nothing more can be read after an I/O error
+                atEnd = true;
+                throw ex;
+            }
             if (response instanceof DataResponse) {
                 return (DataResponse) response;
             } else if (response instanceof EOFStreamResponse || response == null) {
                 atEnd = true;
+            } else if (listener != null) {
+                notifyListener(response, skipData);
             }
         }
 
         return null;
     }
+
+    // skipped totals and extremes have empty blocks, they aren't reported
+    private void notifyListener(Response response, boolean skipData) {
+        if (response instanceof ProgressResponse) {
+            listener.onProgress((ProgressResponse) response);
+        } else if (response instanceof ProfileInfoResponse) {
+            listener.onProfileInfo((ProfileInfoResponse) response);
+        } else if (response instanceof TotalsResponse && !skipData) {
+            listener.onTotals(((TotalsResponse) response).block());
+        } else if (response instanceof ExtremesResponse && !skipData) {
+            listener.onExtremes(((ExtremesResponse) response).block());
+        }
+    }
 }
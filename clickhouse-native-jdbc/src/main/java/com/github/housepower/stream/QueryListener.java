@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.housepower.stream;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.protocol.ProfileInfoResponse;
+import com.github.housepower.protocol.ProgressResponse;
+
+/**
+ * Receives the responses of a query other than its data blocks, as soon as they are read from the connection.
+ * <p>
+ * Callbacks run on the thread reading the result, which is the read-ahead thread when read-ahead is enabled,
+ * and must neither block nor throw.
+ */
+public interface QueryListener {
+
+    /**
+     * Rows and bytes processed by the server since the previous progress, the total rows are an increment of
+     * the estimate too.
+     */
+    default void onProgress(ProgressResponse progress) {
+    }
+
+    /**
+     * Sent after the last data block, {@link ProfileInfoResponse#rowsBeforeLimit()} is only meaningful if
+     * {@link ProfileInfoResponse#calculatedRowsBeforeLimit()} is set.
+     */
+    default void onProfileInfo(ProfileInfoResponse profileInfo) {
+    }
+
+    /**
+     * The totals of a query {@code WITH TOTALS}, not reported once the query is cancelled.
+     */
+    default void onTotals(Block totals) {
+    }
+
+    /**
+     * The minimum and maximum values of the result with {@code extremes = 1}, not reported once the query is
+     * cancelled.
+     */
+    default void onExtremes(Block extremes) {
+    }
+}
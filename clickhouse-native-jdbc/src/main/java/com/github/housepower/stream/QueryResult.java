@@ -25,4 +25,18 @@ public interface QueryResult {
     Block header() throws SQLException;
 
     CheckedIterator<DataResponse, SQLException> data();
+
+    /**
+     * Ask the server to stop the query unless the stream already ended, the remaining responses still have to be
+     * read up to the end of stream. Safe to call from any thread.
+     */
+    default void requestCancel() throws SQLException {
+    }
+
+    /**
+     * Stop reading early, {@link #requestCancel()} and drop the remaining responses up to the end of stream
+     * so the connection can run the next query. Called on the thread reading the result.
+     */
+    default void cancel() throws SQLException {
+    }
 }
@@ -0,0 +1,276 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.stream;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.data.BlockSchema;
+import com.github.housepower.misc.CheckedIterator;
+import com.github.housepower.misc.NamedThreadFactory;
+import com.github.housepower.protocol.DataResponse;
+import com.github.housepower.settings.ClickHouseDefines;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads, decompresses and decodes the next data blocks of a query on a background thread.
+ * <p>
+ * At most {@code maxBlocks} blocks, and roughly {@code maxBytes} of decoded blocks, are buffered.
+ * Errors are rethrown to the consumer after the blocks read before them. Once cancelled, the query is
+ * cancelled on the server and the remaining responses are read and dropped before {@link #cancel()} returns.
+ */
+public class ReadAheadQueryResult implements QueryResult {
+
+    private static final class Workers {
+        private static final ExecutorService POOL = Executors.newCachedThreadPool(
+                new NamedThreadFactory("clickhouse-read-ahead"));
+    }
+
+    // rough decoded size of a variable width cell, e.g. a short string and its offset
+    private static final int ESTIMATED_VARIABLE_CELL_BYTES = 32;
+
+    private final QueryResult delegate;
+    private final int maxBlocks;
+    private final long maxBytes;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Deque<DataResponse> queue = new ArrayDeque<>();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private long queuedBytes;
+    private boolean started;
+    private boolean done;
+    private boolean cancelled;
+    private Throwable error;
+
+    public ReadAheadQueryResult(QueryResult delegate, int maxBlocks) {
+        this(delegate, maxBlocks, ClickHouseDefines.DEFAULT_READ_AHEAD_MAX_BYTES);
+    }
+
+    public ReadAheadQueryResult(QueryResult delegate, int maxBlocks, long maxBytes) {
+        this.delegate = delegate;
+        this.maxBlocks = maxBlocks;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public Block header() throws SQLException {
+        return delegate.header();
+    }
+
+    @Override
+    public CheckedIterator<DataResponse, SQLException> data() {
+        return new CheckedIterator<DataResponse, SQLException>() {
+            @Override
+            public boolean hasNext() throws SQLException {
+                start();
+                return awaitNext();
+            }
+
+            @Override
+            public DataResponse next() throws SQLException {
+                return hasNext() ? poll() : null;
+            }
+        };
+    }
+
+    @Override
+    public void requestCancel() throws SQLException {
+        delegate.requestCancel();
+    }
+
+    /**
+     * Stop buffering and wait until the background reader dropped the remaining responses until the end of stream.
+     */
+    @Override
+    public void cancel() throws SQLException {
+        requestCancel();
+        boolean reading;
+        lock.lock();
+        try {
+            cancelled = true;
+            reading = started;
+            started = true;
+            queue.clear();
+            queuedBytes = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (!reading) {
+            // never started, drop the responses on this thread
+            try {
+                delegate.cancel();
+            } finally {
+                finish(null);
+            }
+            return;
+        }
+        try {
+            awaitFinished();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the cancelled query to finish", e);
+        }
+    }
+
+    /**
+     * Wait until the background reader stopped reading from the connection.
+     */
+    public void awaitFinished() throws InterruptedException {
+        lock.lock();
+        try {
+            if (!started) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        finished.await();
+    }
+
+    private void start() throws SQLException {
+        lock.lock();
+        try {
+            if (started) {
+                return;
+            }
+            started = true;
+        } finally {
+            lock.unlock();
+        }
+        // consume the header on the caller thread, so the background reader only sees data blocks
+        try {
+            header();
+        } catch (SQLException | RuntimeException ex) {
+            // no reader will run, don't leave hasNext() and cancel() waiting for it
+            finish(ex);
+            throw ex;
+        }
+        Workers.POOL.execute(this::readAll);
+    }
+
+    private void readAll() {
+        Throwable failure = null;
+        try {
+            CheckedIterator<DataResponse, SQLException> iterator = delegate.data();
+            while (iterator.hasNext()) {
+                if (!offer(iterator.next())) {
+                    // cancelled, skip the remaining responses without decoding them
+                    delegate.cancel();
+                    break;
+                }
+            }
+        } catch (Throwable th) {
+            failure = th;
+        } finally {
+            finish(failure);
+        }
+    }
+
+    // no more reads from the connection, the error if any is rethrown after the queued blocks
+    private void finish(@Nullable Throwable failure) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                error = failure;
+            }
+            done = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        finished.countDown();
+    }
+
+    // false once cancelled, the response is dropped
+    private boolean offer(DataResponse response) throws InterruptedException {
+        long bytes = estimateBytes(response.block());
+        lock.lock();
+        try {
+            // always accept one block, even if it exceeds the memory limit by itself
+            while (!cancelled && !queue.isEmpty()
+                    && (queue.size() >= maxBlocks || queuedBytes + bytes > maxBytes)) {
+                notFull.await();
+            }
+            if (cancelled) {
+                return false;
+            }
+            queue.add(response);
+            queuedBytes += bytes;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitNext() throws SQLException {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !done) {
+                notEmpty.await();
+            }
+            if (!queue.isEmpty()) {
+                return true;
+            }
+            if (error instanceof SQLException) {
+                throw (SQLException) error;
+            }
+            if (error != null) {
+                throw new SQLException(error.getMessage(), error);
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the next block", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DataResponse poll() {
+        lock.lock();
+        try {
+            DataResponse response = queue.poll();
+            queuedBytes -= estimateBytes(response.block());
+            notFull.signal();
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // fixed width columns are decoded into primitive arrays of the same size as on the wire
+    private static long estimateBytes(Block block) {
+        BlockSchema schema = block.schema();
+        long rowBytes = 0;
+        for (int i = 0; i < schema.columnCnt(); i++) {
+            int size = schema.type(i).fixedByteSize();
+            rowBytes += size < 0 ? ESTIMATED_VARIABLE_CELL_BYTES : size;
+        }
+        return block.rowCnt() * rowBytes;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteArrayWriterTest {
+
+    @Test
+    public void successfullyGrowChunksAndRecycle() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(false, 1024);
+        ByteArrayWriter writer = new ByteArrayWriter(2, 8, pool);
+
+        writer.writeBinary((byte) 1);
+        writer.writeBinary(new byte[] {2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+
+        List<ByteBuffer> chunks = writer.getBufferList();
+        assertEquals(3, chunks.size());
+        assertEquals(2, chunks.get(0).capacity());
+        assertEquals(4, chunks.get(1).capacity());
+        assertEquals(8, chunks.get(2).capacity());
+        assertEquals(1, chunks.get(2).remaining());
+
+        writer.release();
+        assertTrue(writer.getBufferList().isEmpty());
+        assertEquals(14, pool.pooledBytes());
+
+        writer.writeBinary((byte) 1);
+        assertEquals(1, writer.getBufferList().size());
+        assertEquals(8, writer.getBufferList().get(0).capacity());
+        assertEquals(6, pool.pooledBytes());
+    }
+}
@@ -49,6 +49,40 @@ public class CompressedBuffedReaderTest {
         assertEquals(compressedBuffed.readBinary(), 7);
     }
 
+    @Test
+    public void successfullyReadFramesOfGrowingSize() throws Exception {
+        byte[] large = new byte[1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i % 7);
+        }
+
+        CompressedBuffedReader compressedBuffed = new CompressedBuffedReader(
+            new FragmentBuffedReader(compressedData(new byte[] {1, 2}), noneCompressedData(new byte[] {3, 4, 5}),
+                compressedData(large), compressedData(new byte[] {6}))
+        );
+
+        byte[] bytes = new byte[5];
+        compressedBuffed.readBinary(bytes);
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, bytes);
+
+        bytes = new byte[large.length + 2];
+        compressedBuffed.readBinary(bytes, 1, large.length);
+        assertArrayEquals(large, Arrays.copyOfRange(bytes, 1, large.length + 1));
+
+        assertEquals(compressedBuffed.readBinary(), 6);
+    }
+
+    private byte[] noneCompressedData(byte[] bytes) {
+        byte[] data = new byte[bytes.length + COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH];
+
+        data[16] = (byte) (0x02 & 0xFF);
+        System.arraycopy(bytes, 0, data, COMPRESSION_HEADER_LENGTH + CHECKSUM_LENGTH, bytes.length);
+        System.arraycopy(littleEndian(bytes.length + COMPRESSION_HEADER_LENGTH), 0, data, CHECKSUM_LENGTH + 1, 4);
+        System.arraycopy(littleEndian(bytes.length), 0, data, CHECKSUM_LENGTH + 4 + 1, 4);
+
+        return data;
+    }
+
 
     private byte[] compressedData(byte[] bytes) {
         Compressor lz4Compressor = new Lz4Compressor();
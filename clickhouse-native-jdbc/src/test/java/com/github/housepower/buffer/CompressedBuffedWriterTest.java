@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.buffer.codec.ZstdCodec;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import com.github.housepower.misc.ClickHouseCityHash;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.github.housepower.settings.ClickHouseDefines.CHECKSUM_LENGTH;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBuffedWriterTest {
+
+    @Test
+    public void successfullyWriteReadableFramesWithChecksum() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SocketBuffedWriter socket = new SocketBuffedWriter(out, 16);
+        CompressedBuffedWriter compressedBuffed = new CompressedBuffedWriter(8, socket);
+
+        byte[] data = new byte[20];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        compressedBuffed.writeBinary(data);
+        compressedBuffed.flushToTarget(true);
+        socket.flushToTarget(true);
+
+        byte[] frames = out.toByteArray();
+        int compressedSize = frames[CHECKSUM_LENGTH + 1] & 0xFF;
+        long[] checksum = ClickHouseCityHash.cityHash128(frames, CHECKSUM_LENGTH, compressedSize);
+        assertEquals(checksum[0], littleEndianLong(frames, 0));
+        assertEquals(checksum[1], littleEndianLong(frames, 8));
+
+        CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(frames));
+        byte[] bytes = new byte[data.length];
+        reader.readBinary(bytes);
+        assertArrayEquals(data, bytes);
+    }
+
+    @Test
+    public void successfullyRoundTripZstdFrames() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SocketBuffedWriter socket = new SocketBuffedWriter(out, 16);
+        CompressedBuffedWriter compressedBuffed = new CompressedBuffedWriter(1024, socket, new ZstdCodec());
+
+        byte[] data = new byte[3000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 3);
+        }
+        compressedBuffed.writeBinary(data);
+        compressedBuffed.flushToTarget(true);
+        socket.flushToTarget(true);
+
+        byte[] frames = out.toByteArray();
+        assertEquals(0x90, frames[CHECKSUM_LENGTH] & 0xFF);
+
+        CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(frames));
+        byte[] bytes = new byte[data.length];
+        reader.readBinary(bytes);
+        assertArrayEquals(data, bytes);
+    }
+
+    @Test
+    public void successfullyStoreTinyAndIncompressibleFramesRaw() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SocketBuffedWriter socket = new SocketBuffedWriter(out, 16);
+        CompressedBuffedWriter compressedBuffed = new CompressedBuffedWriter(1024, socket);
+
+        compressedBuffed.writeBinary(new byte[] {1, 2, 3});
+        compressedBuffed.flushToTarget(true);
+        socket.flushToTarget(true);
+        assertEquals(0x02, out.toByteArray()[CHECKSUM_LENGTH] & 0xFF);
+
+        out.reset();
+        byte[] random = new byte[1024];
+        new Random(42).nextBytes(random);
+        compressedBuffed.writeBinary(random);
+        socket.flushToTarget(true);
+        assertEquals(0x02, out.toByteArray()[CHECKSUM_LENGTH] & 0xFF);
+
+        CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(out.toByteArray()));
+        byte[] bytes = new byte[random.length];
+        reader.readBinary(bytes);
+        assertArrayEquals(random, bytes);
+
+        out.reset();
+        compressedBuffed = new CompressedBuffedWriter(1024, socket);
+        compressedBuffed.writeBinary(new byte[1024]);
+        socket.flushToTarget(true);
+        assertEquals(0x82, out.toByteArray()[CHECKSUM_LENGTH] & 0xFF);
+    }
+
+    @Test
+    public void successfullyCompressTinyFramesWhenConfigured() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SocketBuffedWriter socket = new SocketBuffedWriter(out, 16);
+        ClickHouseConfig cfg = ClickHouseConfig.Builder.builder()
+                .compressMinFrameBytes(0)
+                .compressMaxRatio(2)
+                .build();
+        CompressedBuffedWriter compressedBuffed = new CompressedBuffedWriter(1024, socket, cfg);
+
+        compressedBuffed.writeBinary(new byte[] {1, 2, 3});
+        compressedBuffed.flushToTarget(true);
+        socket.flushToTarget(true);
+        assertEquals(0x82, out.toByteArray()[CHECKSUM_LENGTH] & 0xFF);
+
+        CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(out.toByteArray()));
+        byte[] bytes = new byte[3];
+        reader.readBinary(bytes);
+        assertArrayEquals(new byte[] {1, 2, 3}, bytes);
+    }
+
+    private long littleEndianLong(byte[] bytes, int offset) {
+        long x = 0;
+        for (int i = 7; i >= 0; i--) {
+            x = (x << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return x;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import com.github.housepower.buffer.codec.CompressionCodec;
+import com.github.housepower.buffer.codec.Lz4Codec;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCompressedBuffedWriterTest {
+
+    @Test
+    public void successfullyWriteFramesInOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SocketBuffedWriter socket = new SocketBuffedWriter(out, 64);
+        ParallelCompressedBuffedWriter compressedBuffed = new ParallelCompressedBuffedWriter(512, socket, Lz4Codec::new, 3);
+
+        byte[] data = new byte[100_000];
+        Random random = new Random(7);
+        for (int i = 0; i < data.length; i++) {
+            // mix compressible and random chunks
+            data[i] = (i / 1000) % 2 == 0 ? (byte) (i % 5) : (byte) random.nextInt();
+        }
+        compressedBuffed.writeBinary(data, 0, 10);
+        compressedBuffed.writeBinary(data[10]);
+        compressedBuffed.writeBinary(data, 11, data.length - 11);
+        compressedBuffed.flushToTarget(true);
+        socket.flushToTarget(true);
+
+        CompressedBuffedReader reader = new CompressedBuffedReader(new FragmentBuffedReader(out.toByteArray()));
+        byte[] bytes = new byte[data.length];
+        reader.readBinary(bytes);
+        assertArrayEquals(data, bytes);
+    }
+
+    @Test
+    public void failedCompressionCancelsFramesInFlight() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch blocked = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        AtomicInteger codecs = new AtomicInteger();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            // the first chunk fails once the other two are compressing
+            ParallelCompressedBuffedWriter compressedBuffed = new ParallelCompressedBuffedWriter(512,
+                    new SocketBuffedWriter(out, 64),
+                    () -> new StuckCodec(codecs.getAndIncrement() == 0, blocked, interrupted), 3, executor);
+
+            compressedBuffed.writeBinary(new byte[3 * 512]);
+            IOException ex = assertThrows(IOException.class, () -> compressedBuffed.flushToTarget(true));
+            assertEquals("Compression failed", ex.getMessage());
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+            assertEquals(0, out.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class StuckCodec implements CompressionCodec {
+        private final boolean fail;
+        private final CountDownLatch blocked;
+        private final CountDownLatch interrupted;
+
+        private StuckCodec(boolean fail, CountDownLatch blocked, CountDownLatch interrupted) {
+            this.fail = fail;
+            this.blocked = blocked;
+            this.interrupted = interrupted;
+        }
+
+        @Override
+        public int methodByte() {
+            return 0x82;
+        }
+
+        @Override
+        public int maxCompressedLength(int uncompressedLength) {
+            return uncompressedLength;
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                            int maxOutputLength) {
+            try {
+                if (fail) {
+                    blocked.await();
+                    throw new IllegalStateException("broken codec");
+                }
+                blocked.countDown();
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 0;
+        }
+
+        @Override
+        public int decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                              int maxOutputLength) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
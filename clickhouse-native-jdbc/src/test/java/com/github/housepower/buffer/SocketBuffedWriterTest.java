@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SocketBuffedWriterTest {
+
+    @Test
+    public void successfullyCoalesceSmallWrites() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        SocketBuffedWriter writer = new SocketBuffedWriter(out, 8);
+
+        writer.writeBinary((byte) 1);
+        writer.writeBinary(new byte[] {2, 3});
+        writer.writeBinary(new byte[] {0, 4, 5, 0}, 1, 2);
+        assertEquals(0, out.writes.get());
+
+        writer.flushToTarget(false);
+        assertEquals(0, out.writes.get());
+
+        writer.flushToTarget(true);
+        assertEquals(1, out.writes.get());
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, out.toByteArray());
+    }
+
+    @Test
+    public void successfullyWriteLargeArrayThrough() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        SocketBuffedWriter writer = new SocketBuffedWriter(out, 4);
+
+        writer.writeBinary((byte) 1);
+        writer.writeBinary(new byte[] {2, 3, 4, 5, 6, 7, 8, 9});
+        writer.writeBinary(new byte[] {10, 11});
+        writer.flushToTarget(true);
+
+        assertEquals(3, out.writes.get());
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, out.toByteArray());
+    }
+
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes.incrementAndGet();
+            super.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            throw new UnsupportedOperationException("unexpected single byte write");
+        }
+
+        @Override
+        public void write(byte[] b) throws IOException {
+            write(b, 0, b.length);
+        }
+    }
+}
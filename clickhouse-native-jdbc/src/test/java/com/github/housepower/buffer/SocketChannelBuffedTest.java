@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.buffer;
+
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SocketChannelBuffedTest {
+
+    @Test
+    public void successfullyWriteAndReadThroughSmallBuffers() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(true, 1024);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                 SocketChannel accepted = server.accept()) {
+                client.configureBlocking(false);
+                accepted.configureBlocking(false);
+
+                SocketChannelBuffedWriter writer = new SocketChannelBuffedWriter(client, pool, 4);
+                SocketChannelBuffedReader reader = new SocketChannelBuffedReader(accepted, pool, 3);
+
+                writer.writeBinary((byte) 1);
+                writer.writeBinary(new byte[] {2, 3, 4, 5, 6, 7});
+                writer.flushToTarget(true);
+
+                assertEquals(1, reader.readBinary());
+                byte[] bytes = new byte[6];
+                reader.readBinary(bytes);
+                assertArrayEquals(new byte[] {2, 3, 4, 5, 6, 7}, bytes);
+
+                writer.close();
+                reader.close();
+                assertEquals(7, pool.pooledBytes());
+            }
+        }
+    }
+
+    @Test
+    public void failedWriteToPeerThatStoppedReading() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(true, 1024);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                 SocketChannel ignored = server.accept()) {
+                client.configureBlocking(false);
+                client.socket().setSoTimeout(100);
+
+                SocketChannelBuffedWriter writer = new SocketChannelBuffedWriter(client, pool, 64 * 1024);
+                byte[] chunk = new byte[64 * 1024];
+                // fills the socket buffers of both ends, nobody reads
+                assertThrows(SocketTimeoutException.class, () -> {
+                    for (int i = 0; i < 1024; i++) {
+                        writer.writeBinary(chunk);
+                    }
+                });
+                writer.close();
+            }
+        }
+    }
+
+    @Test
+    public void pooledBytesAreCapped() {
+        ByteBufferPool pool = new ByteBufferPool(false, 16);
+        pool.release(pool.acquire(16));
+        pool.release(pool.acquire(8));
+        assertEquals(16, pool.pooledBytes());
+
+        assertEquals(16, pool.acquire(16).capacity());
+        assertEquals(0, pool.pooledBytes());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.type.DataTypeFloat32;
+import com.github.housepower.data.type.DataTypeUInt16;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.ClickHouseStruct;
+import com.github.housepower.jdbc.tool.ByteArrayBuffedWriter;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockTest {
+
+    @Test
+    public void successfullyAppendUnboxedValues() throws Exception {
+        Block unboxed = newBlock();
+        unboxed.setLong(0, 65535);
+        unboxed.setDouble(1, 2.5);
+        unboxed.appendRow();
+        unboxed.setLong(0, 7);
+        unboxed.setDouble(1, -1);
+        unboxed.appendRow();
+
+        Block boxed = newBlock();
+        boxed.setObject(0, 65535);
+        boxed.setObject(1, 2.5F);
+        boxed.appendRow();
+        boxed.setObject(0, 7);
+        boxed.setObject(1, -1F);
+        boxed.appendRow();
+
+        assertEquals(2, unboxed.rowCnt());
+        assertEquals(7L, unboxed.getObject(0));
+        assertArrayEquals(columnBytes(boxed, 0), columnBytes(unboxed, 0));
+        assertArrayEquals(columnBytes(boxed, 1), columnBytes(unboxed, 1));
+    }
+
+    @Test
+    public void failedAppendLongToFloatColumn() throws Exception {
+        Block block = newBlock();
+        block.setLong(0, 1);
+        block.setLong(1, 1);
+        assertThrows(SQLException.class, block::appendRow);
+    }
+
+    @Test
+    public void successfullyShareSchemaAcrossBlocks() throws Exception {
+        NativeContext.ServerContext serverContext = new NativeContext.ServerContext(
+                1, 1, 54380, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "test");
+        byte[] bytes = serialize(newBlock());
+
+        Block first = Block.readFrom(deserializer(bytes), serverContext);
+        Block second = Block.readFrom(deserializer(bytes), serverContext);
+        assertSame(first.schema(), second.schema());
+        assertSame(first.schema(), serverContext.lastSchema());
+        assertEquals(2, second.getPositionByName("b"));
+        assertEquals("Float32", second.getColumn(1).type().name());
+    }
+
+    @Test
+    public void successfullySkipBlock() throws Exception {
+        NativeContext.ServerContext serverContext = new NativeContext.ServerContext(
+                1, 1, 54380, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "test");
+        String[] types = {"String", "Nullable(String)", "Array(Array(Nullable(String)))", "Tuple(String, UInt8)", "Int64"};
+        IColumn[] columns = new IColumn[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = ColumnFactory.createColumn("c" + i, DataTypeFactory.get(types[i], serverContext), new Object[0]);
+        }
+        Block block = new Block(0, columns);
+        block.initWriteBuffer();
+        IDataType<?, ?> inner = DataTypeFactory.get("Array(Nullable(String))", serverContext);
+        for (int row = 0; row < 3; row++) {
+            block.setObject(0, "s" + row);
+            block.setObject(1, row == 1 ? null : "n" + row);
+            block.setObject(2, new ClickHouseArray(inner, new Object[]{
+                    new ClickHouseArray(DataTypeFactory.get("Nullable(String)", serverContext), new Object[]{"x", null})}));
+            block.setObject(3, new ClickHouseStruct("Tuple", new Object[]{"t" + row, (short) row}));
+            block.setObject(4, (long) row);
+            block.appendRow();
+        }
+        ByteArrayBuffedWriter writer = new ByteArrayBuffedWriter();
+        BinarySerializer serializer = new BinarySerializer(writer, false);
+        block.writeTo(serializer);
+        serializer.writeVarInt(42);
+        serializer.flushToTarget(true);
+
+        BinaryDeserializer deserializer = deserializer(writer.toByteArray());
+        assertEquals(3, Block.skipFrom(deserializer, serverContext));
+        assertEquals(42, deserializer.readVarInt());
+    }
+
+    private static Block newBlock() {
+        Block block = new Block(0, new IColumn[]{
+                new ColumnInt("a", new DataTypeUInt16(), new int[0]),
+                new Column("b", new DataTypeFloat32(), new Object[0])});
+        block.initWriteBuffer();
+        return block;
+    }
+
+    private static byte[] columnBytes(Block block, int columnIdx) throws Exception {
+        ByteArrayBuffedWriter writer = new ByteArrayBuffedWriter();
+        block.getColumn(columnIdx).getColumnWriterBuffer().writeTo(new BinarySerializer(writer, false));
+        return writer.toByteArray();
+    }
+
+    private static byte[] serialize(Block block) throws Exception {
+        block.setLong(0, 1);
+        block.setDouble(1, 1);
+        block.appendRow();
+        ByteArrayBuffedWriter writer = new ByteArrayBuffedWriter();
+        block.writeTo(new BinarySerializer(writer, false));
+        return writer.toByteArray();
+    }
+
+    private static BinaryDeserializer deserializer(byte[] bytes) {
+        return new BinaryDeserializer(new FragmentBuffedReader(bytes), false);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.DataTypeInt32;
+import com.github.housepower.data.type.DataTypeInt64;
+import com.github.housepower.data.type.complex.DataTypeArray;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.tool.ByteArrayBuffedWriter;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnArrayTest {
+
+    @Test
+    public void successfullyResetOffsetsAfterFlush() throws Exception {
+        DataTypeInt32 elemType = new DataTypeInt32();
+        ColumnArray column = new ColumnArray(null, new DataTypeArray("Array(Int32)", elemType, new DataTypeInt64()), null);
+        column.setColumnWriterBuffer(new ColumnWriterBuffer());
+
+        column.write(new ClickHouseArray(elemType, new Object[]{1, 2}));
+        column.write(new ClickHouseArray(elemType, new Object[]{3}));
+        BinaryDeserializer first = flush(column);
+        long[] offsets = new long[2];
+        first.readLongs(offsets, 0, 2);
+        assertArrayEquals(new long[]{2, 3}, offsets);
+        int[] values = new int[3];
+        first.readInts(values, 0, 3);
+        assertArrayEquals(new int[]{1, 2, 3}, values);
+
+        column.setColumnWriterBuffer(new ColumnWriterBuffer());
+        column.write(new ClickHouseArray(elemType, new Object[]{4}));
+        BinaryDeserializer second = flush(column);
+        offsets = new long[1];
+        second.readLongs(offsets, 0, 1);
+        assertArrayEquals(new long[]{1}, offsets);
+    }
+
+    private static BinaryDeserializer flush(IColumn column) throws Exception {
+        ByteArrayBuffedWriter writer = new ByteArrayBuffedWriter();
+        column.flushToSerializer(new BinarySerializer(writer, false), true);
+        return new BinaryDeserializer(new FragmentBuffedReader(writer.toByteArray()), false);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.DataTypeFloat64;
+import com.github.housepower.data.type.DataTypeInt32;
+import com.github.housepower.data.type.DataTypeUInt32;
+import com.github.housepower.data.type.DataTypeUInt8;
+import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.data.type.complex.DataTypeString;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import com.github.housepower.serde.BinaryDeserializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnFactoryTest {
+
+    @Test
+    public void successfullyReadPrimitiveColumns() throws Exception {
+        byte[] bytes = new byte[]{
+                // UInt8
+                (byte) 0xff, 1,
+                // UInt32
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 2, 0, 0, 0,
+                // Float64 1.5
+                0, 0, 0, 0, 0, 0, (byte) 0xf8, 0x3f, 0, 0, 0, 0, 0, 0, 0, 0};
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(bytes), false);
+
+        IColumn uint8 = ColumnFactory.readColumn("a", new DataTypeUInt8(), 2, deserializer);
+        assertEquals((short) 255, uint8.value(0));
+        assertEquals(1, uint8.intValue(1));
+
+        IColumn uint32 = ColumnFactory.readColumn("b", new DataTypeUInt32(), 2, deserializer);
+        assertEquals(4294967295L, uint32.value(0));
+        assertEquals(4294967295L, uint32.longValue(0));
+        assertEquals(2L, uint32.longValue(1));
+        assertFalse(uint32.isNull(0));
+
+        IColumn float64 = ColumnFactory.readColumn("c", new DataTypeFloat64(), 2, deserializer);
+        assertEquals(1.5D, float64.doubleValue(0));
+        assertEquals(1L, float64.longValue(0));
+        assertEquals(0.0D, float64.value(1));
+    }
+
+    @Test
+    public void successfullyReadStringColumn() throws Exception {
+        byte[] bytes = new byte[]{3, 'a', 'b', 'c', 0, 2, (byte) 0xc3, (byte) 0xa9};
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(bytes), false);
+
+        IColumn column = ColumnFactory.readColumn("s", new DataTypeString(StandardCharsets.UTF_8), 3, deserializer);
+        assertEquals("abc", column.value(0));
+        assertEquals("", column.value(1));
+        assertEquals("\u00e9", column.value(2));
+        ByteBuffer view = column.bytesView(2);
+        assertEquals(2, view.remaining());
+        assertEquals((byte) 0xc3, view.get(0));
+        assertTrue(view.isReadOnly());
+    }
+
+    @Test
+    public void successfullyReadNullableStringColumn() throws Exception {
+        byte[] bytes = new byte[]{
+                // null map
+                0, 1, 0,
+                // strings, the null row is empty
+                2, 'h', 'i', 0, 1, 'x'};
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(bytes), false);
+        DataTypeNullable type = new DataTypeNullable(
+                "Nullable(String)", new DataTypeString(StandardCharsets.UTF_8), new DataTypeUInt8());
+
+        IColumn column = ColumnFactory.readColumn("s", type, 3, deserializer);
+        assertTrue(column instanceof ColumnNullableString);
+        assertEquals("hi", column.value(0));
+        assertTrue(column.isNull(1));
+        assertNull(column.value(1));
+        assertNull(column.bytesView(1));
+        assertFalse(column.isNull(2));
+        assertEquals("x", column.value(2));
+        assertEquals(1, column.bytesView(2).remaining());
+    }
+
+    @Test
+    public void successfullyReadLazyColumn() throws Exception {
+        byte[] bytes = new byte[]{
+                // Int32 column
+                1, 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+                // following column
+                2, 'h', 'i', 0};
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(bytes), false);
+
+        IColumn column = ColumnFactory.readLazyColumn("i", new DataTypeInt32(), 2, deserializer);
+        IColumn next = ColumnFactory.readLazyColumn("s", new DataTypeString(StandardCharsets.UTF_8), 2, deserializer);
+        assertTrue(column instanceof LazyColumn);
+        assertFalse(((LazyColumn) column).isDecoded());
+        assertEquals("hi", next.value(0));
+
+        assertEquals(-1, column.intValue(1));
+        assertEquals(1, column.value(0));
+        assertTrue(((LazyColumn) column).isDecoded());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.data;
+
+import com.github.housepower.data.type.DataTypeInt32;
+import com.github.housepower.data.type.DataTypeUInt8;
+import com.github.housepower.data.type.complex.DataTypeNullable;
+import com.github.housepower.jdbc.tool.ByteArrayBuffedWriter;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import com.github.housepower.serde.BinaryDeserializer;
+import com.github.housepower.serde.BinarySerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnNullableTest {
+
+    @Test
+    public void successfullyResetNullMapOnClear() throws Exception {
+        DataTypeNullable type = new DataTypeNullable("Nullable(Int32)", new DataTypeInt32(), new DataTypeUInt8());
+        ColumnNullable column = new ColumnNullable(null, type, null);
+        column.setColumnWriterBuffer(new ColumnWriterBuffer());
+        column.write(1);
+        column.write(null);
+
+        column.clear();
+        column.setColumnWriterBuffer(new ColumnWriterBuffer());
+        column.write(null);
+        column.write(5);
+
+        ByteArrayBuffedWriter writer = new ByteArrayBuffedWriter();
+        column.flushToSerializer(new BinarySerializer(writer, false), true);
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(writer.toByteArray()), false);
+        assertArrayEquals(new byte[]{1, 0}, deserializer.readBytes(2));
+        int[] values = new int[2];
+        deserializer.readInts(values, 0, 2);
+        assertArrayEquals(new int[]{0, 5}, values);
+    }
+}
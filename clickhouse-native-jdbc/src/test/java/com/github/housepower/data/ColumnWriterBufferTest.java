@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.housepower.data;
+
+import com.github.housepower.buffer.ByteBufferPool;
+import com.github.housepower.jdbc.tool.ByteArrayBuffedWriter;
+import com.github.housepower.serde.BinarySerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnWriterBufferTest {
+
+    @Test
+    public void successfullyWriteChunksInOrderAndRecycle() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(false, 1024);
+        // chunks of 4, 8 and 8 bytes, the last one partially filled
+        ColumnWriterBuffer buffer = new ColumnWriterBuffer(4, 8, pool);
+        byte[] content = new byte[17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i + 1);
+        }
+        buffer.column.writeByte(content[0]);
+        buffer.column.writeBytes(content, 1, content.length - 1);
+
+        ByteArrayBuffedWriter out = new ByteArrayBuffedWriter();
+        buffer.writeTo(new BinarySerializer(out, false));
+        assertArrayEquals(content, out.toByteArray());
+        assertEquals(20, pool.pooledBytes());
+
+        // the recycled chunks must not leak the previous block's content
+        buffer.column.writeBytes(new byte[] {42, 43}, 0, 2);
+        ByteArrayBuffedWriter next = new ByteArrayBuffedWriter();
+        buffer.writeTo(new BinarySerializer(next, false));
+        assertArrayEquals(new byte[] {42, 43}, next.toByteArray());
+        assertEquals(20, pool.pooledBytes());
+    }
+}
@@ -14,12 +14,15 @@
 
 package com.github.housepower.jdbc;
 
+import com.github.housepower.client.NativeContext;
 import com.github.housepower.settings.ClickHouseConfig;
+import com.github.housepower.settings.SettingKey;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Properties;
@@ -198,4 +201,53 @@ public class BalancedClickhouseDataSourceITest extends AbstractITest {
         assertEquals(String.format(Locale.ROOT, "jdbc:clickhouse://%s:%s/click?query_timeout=12345&user=readonly", CK_IP, CK_PORT),
                 dataSource.getAllClickhouseUrls().get(1));
     }
+
+    @Test
+    public void testPooledConnectionReuse() throws Exception {
+        BalancedClickhouseDataSource pooledDs = new BalancedClickhouseDataSource(
+                String.format(Locale.ROOT, "jdbc:clickhouse://%s:%s", CK_HOST, CK_PORT));
+        pooledDs.setPoolMaxSize(2);
+        pooledDs.setPoolMaxWait(Duration.ofMillis(100));
+        try {
+            NativeContext.ServerContext first;
+            try (ClickHouseConnection connection = pooledDs.getConnection()) {
+                first = connection.serverContext();
+                withStatement(connection, stmt -> assertTrue(stmt.executeQuery("SELECT 1").next()));
+            }
+            try (ClickHouseConnection connection = pooledDs.getConnection()) {
+                assertSame(first, connection.serverContext());
+                withStatement(connection, stmt -> {
+                    stmt.setMaxRows(1);
+                    assertTrue(stmt.executeQuery("SELECT 1").next());
+                });
+            }
+            try (ClickHouseConnection connection = pooledDs.getConnection()) {
+                // the settings written by the previous borrower are gone
+                assertFalse(connection.cfg().settings().containsKey(SettingKey.max_result_rows));
+            }
+
+            try (ClickHouseConnection a = pooledDs.getConnection();
+                 ClickHouseConnection b = pooledDs.getConnection()) {
+                assertNotSame(a.serverContext(), b.serverContext());
+                assertThrows(SQLException.class, pooledDs::getConnection);
+            }
+        } finally {
+            pooledDs.close();
+        }
+    }
+
+    @Test
+    public void testHedgedQuery() throws Exception {
+        dualDs.setHedgeDelay(Duration.ZERO);
+        try {
+            long value = dualDs.executeHedgedQuery("SELECT 42", rs -> {
+                assertTrue(rs.next());
+                return rs.getLong(1);
+            });
+            assertEquals(42, value);
+            assertThrows(SQLException.class, () -> dualDs.executeHedgedQuery("DROP TABLE test.insert_test", rs -> null));
+        } finally {
+            dualDs.close();
+        }
+    }
 }
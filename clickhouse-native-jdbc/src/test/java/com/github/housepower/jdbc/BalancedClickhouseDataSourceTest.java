@@ -17,11 +17,21 @@ package com.github.housepower.jdbc;
 import com.github.housepower.exception.InvalidValueException;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BalancedClickhouseDataSourceTest {
 
@@ -51,4 +61,59 @@ public class BalancedClickhouseDataSourceTest {
         assertThrows(InvalidValueException.class, () ->
                 BalancedClickhouseDataSource.splitUrl("jdbc:clickhouse://localhost:1234,_0ano^ther-host.com:4321"));
     }
+
+    @Test
+    public void testRendezvousUrlIsStable() {
+        List<String> urls = Arrays.asList("jdbc:clickhouse://a:9000", "jdbc:clickhouse://b:9000", "jdbc:clickhouse://c:9000");
+        for (int i = 0; i < 100; i++) {
+            String key = "key-" + i;
+            String url = BalancedClickhouseDataSource.rendezvousUrl(urls, key);
+            assertEquals(url, BalancedClickhouseDataSource.rendezvousUrl(urls, key));
+
+            // only the keys of the removed host move
+            List<String> others = new ArrayList<>(urls);
+            others.remove(url.equals(urls.get(0)) ? urls.get(1) : urls.get(0));
+            assertEquals(url, BalancedClickhouseDataSource.rendezvousUrl(others, key));
+        }
+    }
+
+    @Test
+    public void testActualizeDisableUnreachableHost() {
+        BalancedClickhouseDataSource dataSource = new BalancedClickhouseDataSource("jdbc:clickhouse://127.0.0.1:1");
+        dataSource.setHealthCheckTimeout(Duration.ofMillis(200));
+        try {
+            assertEquals(0, dataSource.actualize());
+            assertTrue(dataSource.hasDisabledUrls());
+            assertNull(dataSource.getHostLatency("jdbc:clickhouse://127.0.0.1:1"));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void testSkipOverlappingActualize() throws Exception {
+        // accepts but never answers the handshake, so a check runs until the health check timeout
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return server.accept();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            BalancedClickhouseDataSource dataSource =
+                    new BalancedClickhouseDataSource("jdbc:clickhouse://127.0.0.1:" + server.getLocalPort());
+            dataSource.setHealthCheckTimeout(Duration.ofSeconds(2));
+            try {
+                CompletableFuture<Integer> first = CompletableFuture.supplyAsync(dataSource::actualize);
+                try (Socket ignored = accepted.get(10, TimeUnit.SECONDS)) {
+                    // the host isn't disabled by a check that lost the race
+                    assertEquals(1, dataSource.actualize());
+                }
+                assertEquals(0, first.get(10, TimeUnit.SECONDS).intValue());
+            } finally {
+                dataSource.close();
+            }
+        }
+    }
 }
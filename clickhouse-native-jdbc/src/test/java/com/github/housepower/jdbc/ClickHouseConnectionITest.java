@@ -14,10 +14,19 @@
 
 package com.github.housepower.jdbc;
 
+import com.github.housepower.data.Block;
+import com.github.housepower.jdbc.statement.ClickHouseStatement;
+import com.github.housepower.protocol.ProfileInfoResponse;
+import com.github.housepower.stream.QueryListener;
 import org.junit.jupiter.api.Test;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ClickHouseConnectionITest extends AbstractITest {
 
@@ -38,4 +47,48 @@ public class ClickHouseConnectionITest extends AbstractITest {
             assertEquals("abc", connection.getSchema());
         });
     }
+
+    @Test
+    public void testCloseUnfinishedResultSet() throws Exception {
+        withNewConnection(connection -> {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT number FROM system.numbers");
+            assertTrue(rs.next());
+            rs.close();
+
+            ResultSet next = stmt.executeQuery("SELECT 1");
+            assertTrue(next.next());
+            assertEquals(1, next.getInt(1));
+        });
+    }
+
+    @Test
+    public void testQueryListener() throws Exception {
+        withNewConnection(connection -> {
+            AtomicLong rowsBeforeLimit = new AtomicLong();
+            AtomicLong totals = new AtomicLong();
+            ClickHouseStatement stmt = connection.createStatement().unwrap(ClickHouseStatement.class);
+            stmt.setQueryListener(new QueryListener() {
+                @Override
+                public void onProfileInfo(ProfileInfoResponse profileInfo) {
+                    rowsBeforeLimit.set(profileInfo.rowsBeforeLimit());
+                }
+
+                @Override
+                public void onTotals(Block block) {
+                    totals.set(((Number) block.getColumn(1).value(0)).longValue());
+                }
+            });
+
+            ResultSet rs = stmt.executeQuery(
+                    "SELECT number % 10 AS k, count() AS c FROM numbers(100) GROUP BY k WITH TOTALS LIMIT 3");
+            int rows = 0;
+            while (rs.next()) {
+                rows++;
+            }
+            assertEquals(3, rows);
+            assertEquals(10L, rowsBeforeLimit.get());
+            assertEquals(100L, totals.get());
+        });
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.housepower.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClickHouseConnectionTest {
+
+    @Test
+    public void successfullyDetectReadQuery() {
+        assertTrue(ClickHouseConnection.isReadQuery("select 1"));
+        assertTrue(ClickHouseConnection.isReadQuery(" (WITH 1 AS x SELECT x)"));
+        assertFalse(ClickHouseConnection.isReadQuery("INSERT INTO t SELECT 1"));
+    }
+
+    @Test
+    public void successfullyDetectConnectionLoss() {
+        assertTrue(ClickHouseConnection.isConnectionLoss(
+                new SQLException("Attempt to read after eof.", new EOFException("Attempt to read after eof."))));
+        assertTrue(ClickHouseConnection.isConnectionLoss(
+                new SQLException("Failed to finish the previous query", new SQLException(new SocketException("reset")))));
+        // the server may still be running a slow query, sending it again would double the load
+        assertFalse(ClickHouseConnection.isConnectionLoss(
+                new SQLException("Read timed out", new SocketTimeoutException("Read timed out"))));
+        assertFalse(ClickHouseConnection.isConnectionLoss(new SQLException("Code: 60, table doesn't exist")));
+    }
+}
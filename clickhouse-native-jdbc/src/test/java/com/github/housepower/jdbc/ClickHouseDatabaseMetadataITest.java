@@ -47,7 +47,7 @@ class ClickHouseDatabaseMetadataITest extends AbstractITest {
     void getURL() throws Exception {
         withNewConnection(connection -> {
             DatabaseMetaData dm = connection.getMetaData();
-            assertEquals(String.format(Locale.ROOT, "jdbc:clickhouse://%s:%s/default?query_timeout=0&connect_timeout=0&charset=UTF-8&tcp_keep_alive=false", CK_HOST, CK_PORT),
+            assertEquals(String.format(Locale.ROOT, "jdbc:clickhouse://%s:%s/default?query_timeout=0&connect_timeout=0&charset=UTF-8&tcp_keep_alive=false&use_nio=false&compress_method=lz4&compress_parallelism=0&compress_min_frame_bytes=256&compress_max_ratio=0.9&compress_skip_frames=16&read_ahead_blocks=0&read_ahead_max_bytes=268435456&lazy_decode=false&ping_idle_time=10", CK_HOST, CK_PORT),
                     dm.getURL());
         });
     }
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.housepower.jdbc;
+
+import com.github.housepower.misc.CheckedFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgedQueryExecutorTest {
+
+    private final HedgedQueryExecutor executor = new HedgedQueryExecutor();
+    private final List<String> connected = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void successfullySkipHedgeForFastHost() throws Exception {
+        FakeTask first = new FakeTask(null);
+
+        ResultSet winner = executor.execute("a", "b", Duration.ofSeconds(10), connector(first, null), rs -> rs);
+        assertSame(first.resultSet, winner);
+        assertEquals(Collections.singletonList("a"), connected);
+        assertTrue(first.closed.await(1, TimeUnit.SECONDS));
+        assertSame(first.resultSet, first.closedWith);
+    }
+
+    @Test
+    public void successfullyHedgeSlowHost() throws Exception {
+        CountDownLatch slow = new CountDownLatch(1);
+        FakeTask first = new FakeTask(slow);
+        FakeTask second = new FakeTask(null);
+
+        ResultSet winner = executor.execute("a", "b", Duration.ofMillis(10), connector(first, second), rs -> rs);
+        assertSame(second.resultSet, winner);
+        assertEquals(2, connected.size());
+        assertTrue(second.closed.await(1, TimeUnit.SECONDS));
+
+        // the loser is cancelled right away, but only closed once its header arrived
+        assertTrue(first.cancelled.await(1, TimeUnit.SECONDS));
+        assertFalse(first.closed.await(50, TimeUnit.MILLISECONDS));
+        slow.countDown();
+        assertTrue(first.closed.await(1, TimeUnit.SECONDS));
+        assertSame(first.resultSet, first.closedWith);
+    }
+
+    @Test
+    public void failedWhenBothHostsFail() throws Exception {
+        CountDownLatch slow = new CountDownLatch(1);
+        FakeTask first = new FakeTask(slow, new SQLException("first"));
+        FakeTask second = new FakeTask(null, new SQLException("second"));
+
+        // the first host fails once the query was hedged
+        CheckedFunction<String, HedgedQueryExecutor.Task, SQLException> connector = url -> {
+            connected.add(url);
+            if (connected.size() == 1) {
+                return first;
+            }
+            slow.countDown();
+            return second;
+        };
+
+        SQLException ex = assertThrows(SQLException.class,
+                () -> executor.execute("a", "b", Duration.ofMillis(10), connector, rs -> {
+                    throw new AssertionError("no result expected");
+                }));
+        // the error of the first host wins, it's only known once both failed
+        assertEquals("first", ex.getMessage());
+        assertTrue(first.closed.await(1, TimeUnit.SECONDS));
+        assertTrue(second.closed.await(1, TimeUnit.SECONDS));
+        assertNull(second.closedWith);
+    }
+
+    @Test
+    public void successfullyRecordLatencyOfWinningAttempt() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            CountDownLatch slow = new CountDownLatch(1);
+            FakeTask first = new FakeTask(slow);
+            FakeTask second = new FakeTask(null);
+            connected.clear();
+            executor.execute("a", "b", Duration.ofMillis(20), connector(first, second), rs -> rs);
+            slow.countDown();
+        }
+        // the hedge delay isn't part of the samples
+        assertTrue(executor.delayNanos(null) < Duration.ofMillis(20).toNanos());
+    }
+
+    @Test
+    public void successfullyDelayByRecentLatencies() {
+        assertEquals(Duration.ofMillis(7).toNanos(), executor.delayNanos(Duration.ofMillis(7)));
+        assertEquals(HedgedQueryExecutor.DEFAULT_DELAY.toNanos(), executor.delayNanos(null));
+        for (int i = 1; i <= 100; i++) {
+            executor.recordLatency(i);
+        }
+        assertEquals(96, executor.delayNanos(null));
+    }
+
+    private CheckedFunction<String, HedgedQueryExecutor.Task, SQLException> connector(
+            FakeTask first, FakeTask second) {
+        return url -> {
+            connected.add(url);
+            return connected.size() == 1 ? first : second;
+        };
+    }
+
+    private static class FakeTask implements HedgedQueryExecutor.Task {
+        final ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> null);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        private final CountDownLatch header;
+        private final SQLException error;
+        volatile ResultSet closedWith;
+
+        FakeTask(CountDownLatch header) {
+            this(header, null);
+        }
+
+        FakeTask(CountDownLatch header, SQLException error) {
+            this.header = header;
+            this.error = error;
+        }
+
+        @Override
+        public ResultSet execute() throws SQLException {
+            if (header != null) {
+                try {
+                    header.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            return resultSet;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.countDown();
+        }
+
+        @Override
+        public void close(ResultSet resultSet) {
+            closedWith = resultSet;
+            closed.countDown();
+        }
+    }
+}
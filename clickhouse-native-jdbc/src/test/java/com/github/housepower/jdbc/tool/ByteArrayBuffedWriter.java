@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.jdbc.tool;
+
+import com.github.housepower.buffer.BuffedWriter;
+
+import java.io.ByteArrayOutputStream;
+
+public class ByteArrayBuffedWriter implements BuffedWriter {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Override
+    public void writeBinary(byte byt) {
+        out.write(byt);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeBinary(byte[] bytes, int offset, int length) {
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flushToTarget(boolean force) {
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
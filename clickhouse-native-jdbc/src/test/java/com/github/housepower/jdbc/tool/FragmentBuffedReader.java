@@ -32,13 +32,20 @@ public class FragmentBuffedReader implements BuffedReader {
 
     @Override
     public int readBinary() throws IOException {
-        throw new UnsupportedOperationException();
+        byte[] single = new byte[1];
+        readBinary(single, 0, 1);
+        return single[0] & 0xFF;
     }
 
     @Override
     public int readBinary(byte[] bytes) throws IOException {
+        return readBinary(bytes, 0, bytes.length);
+    }
 
-        for (int i = 0; i < bytes.length; ) {
+    @Override
+    public int readBinary(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int i = offset; i < end; ) {
             if (bytesPosition == fragments[fragmentPos].length) {
                 fragmentPos++;
                 bytesPosition = 0;
@@ -47,7 +54,7 @@ public class FragmentBuffedReader implements BuffedReader {
 
             byte[] fragment = fragments[fragmentPos];
 
-            int pending = bytes.length - i;
+            int pending = end - i;
             int fillLength = Math.min(pending, fragment.length - bytesPosition);
 
             if (fillLength > 0) {
@@ -57,6 +64,6 @@ public class FragmentBuffedReader implements BuffedReader {
                 bytesPosition += fillLength;
             }
         }
-        return bytes.length;
+        return length;
     }
 }
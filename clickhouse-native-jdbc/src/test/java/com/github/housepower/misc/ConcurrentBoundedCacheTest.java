@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.misc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentBoundedCacheTest {
+
+    @Test
+    public void testPutIfAbsent() {
+        ConcurrentBoundedCache<String, String> cache = new ConcurrentBoundedCache<>(4);
+        assertNull(cache.get("a"));
+        assertEquals("1", cache.putIfAbsent("a", "1"));
+        assertEquals("1", cache.putIfAbsent("a", "2"));
+        assertEquals("1", cache.get("a"));
+    }
+
+    @Test
+    public void testBounded() {
+        ConcurrentBoundedCache<Integer, String> cache = new ConcurrentBoundedCache<>(4);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), cache.putIfAbsent(i, String.valueOf(i)));
+            assertTrue(cache.size() <= cache.maxSize());
+        }
+        assertEquals("99", cache.get(99));
+    }
+}
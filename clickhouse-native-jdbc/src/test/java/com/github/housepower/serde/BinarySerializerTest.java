@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.serde;
+
+import com.github.housepower.client.NativeContext;
+import com.github.housepower.data.DataTypeFactory;
+import com.github.housepower.data.IDataType;
+import com.github.housepower.jdbc.ClickHouseArray;
+import com.github.housepower.jdbc.ClickHouseStruct;
+import com.github.housepower.jdbc.tool.ByteArrayBuffedWriter;
+import com.github.housepower.jdbc.tool.FragmentBuffedReader;
+import com.github.housepower.settings.ClickHouseConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySerializerTest {
+
+    @Test
+    public void successfullyRoundTripBulkPrimitives() throws Exception {
+        int rows = 5000;
+        Random random = new Random(11);
+        short[] shorts = new short[rows];
+        int[] ints = new int[rows];
+        long[] longs = new long[rows];
+        float[] floats = new float[rows];
+        double[] doubles = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            shorts[i] = (short) random.nextInt();
+            ints[i] = random.nextInt();
+            longs[i] = random.nextLong();
+            floats[i] = random.nextFloat();
+            doubles[i] = random.nextDouble();
+        }
+
+        ByteArrayBuffedWriter out = new ByteArrayBuffedWriter();
+        BinarySerializer serializer = new BinarySerializer(out, false);
+        serializer.writeShorts(shorts, 0, rows);
+        serializer.writeInts(ints, 0, rows);
+        serializer.writeLongs(longs, 0, rows);
+        serializer.writeFloats(floats, 0, rows);
+        serializer.writeDoubles(doubles, 0, rows);
+
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(out.toByteArray()), false);
+        short[] shortsRead = new short[rows];
+        deserializer.readShorts(shortsRead, 0, rows);
+        assertArrayEquals(shorts, shortsRead);
+        int[] intsRead = new int[rows];
+        deserializer.readInts(intsRead, 0, rows);
+        assertArrayEquals(ints, intsRead);
+        long[] longsRead = new long[rows];
+        deserializer.readLongs(longsRead, 0, rows);
+        assertArrayEquals(longs, longsRead);
+        float[] floatsRead = new float[rows];
+        deserializer.readFloats(floatsRead, 0, rows);
+        assertArrayEquals(floats, floatsRead);
+        double[] doublesRead = new double[rows + 1];
+        deserializer.readDoubles(doublesRead, 1, rows);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(doubles[i], doublesRead[i + 1]);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void successfullyRoundTripBulkTupleOfPrimitives() throws Exception {
+        IDataType<Object, ?> type = (IDataType<Object, ?>) DataTypeFactory.get(
+                "Tuple(Int32, Int64, Float64, UInt8)", serverContext());
+        Object[] rows = {
+                new ClickHouseStruct("Tuple", new Object[]{1, 2L, 3.5D, (short) 200}),
+                new ClickHouseStruct("Tuple", new Object[]{null, -2L, -3.5D, (short) 0})};
+
+        Object[] read = roundTrip(type, rows);
+        assertArrayEquals(new Object[]{1, 2L, 3.5D, (short) 200}, ((ClickHouseStruct) read[0]).getAttributes());
+        // not Nullable, null is written as 0
+        assertArrayEquals(new Object[]{0, -2L, -3.5D, (short) 0}, ((ClickHouseStruct) read[1]).getAttributes());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void successfullyRoundTripBulkArrayOfPrimitives() throws Exception {
+        String[] elemTypes = {"Int32", "Int64", "Float64"};
+        Object[][][] elemValues = {
+                {{1, 2}, {}, {3}},
+                {{1L, 2L}, {}, {-3L}},
+                {{1.5D, 2D}, {}, {-3D}}};
+        for (int t = 0; t < elemTypes.length; t++) {
+            String elemType = elemTypes[t];
+            IDataType<Object, ?> elem = (IDataType<Object, ?>) DataTypeFactory.get(elemType, serverContext());
+            IDataType<Object, ?> type = (IDataType<Object, ?>) DataTypeFactory.get(
+                    "Array(" + elemType + ")", serverContext());
+            Object[][] values = elemValues[t];
+            Object[] rows = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                rows[i] = new ClickHouseArray(elem, values[i]);
+            }
+
+            Object[] read = roundTrip(type, rows);
+            assertEquals(values.length, read.length);
+            for (int i = 0; i < values.length; i++) {
+                assertArrayEquals(values[i], ((ClickHouseArray) read[i]).getArray(), elemType);
+            }
+        }
+    }
+
+    private static Object[] roundTrip(IDataType<Object, ?> type, Object[] rows) throws Exception {
+        Object[] typed = (Object[]) java.lang.reflect.Array.newInstance(type.javaType(), rows.length);
+        System.arraycopy(rows, 0, typed, 0, rows.length);
+        ByteArrayBuffedWriter out = new ByteArrayBuffedWriter();
+        BinarySerializer serializer = new BinarySerializer(out, false);
+        type.serializeBinaryBulk(typed, serializer);
+        serializer.flushToTarget(true);
+        BinaryDeserializer deserializer = new BinaryDeserializer(new FragmentBuffedReader(out.toByteArray()), false);
+        return type.deserializeBinaryBulk(rows.length, deserializer);
+    }
+
+    private static NativeContext.ServerContext serverContext() {
+        return new NativeContext.ServerContext(
+                1, 1, 54380, ClickHouseConfig.Builder.builder().build(), ZoneId.of("UTC"), "test");
+    }
+}
@@ -14,12 +14,14 @@
 
 package com.github.housepower.settings;
 
+import com.github.housepower.buffer.codec.CompressionMethod;
 import com.github.housepower.serde.SettingType;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,7 +40,7 @@ class ClickHouseConfigTest {
         assertEquals(StandardCharsets.UTF_8, cfg.charset());
         assertFalse(cfg.tcpKeepAlive());
         assertEquals("default", cfg.database());
-        assertEquals("jdbc:clickhouse://127.0.0.1:9000/default?query_timeout=0&connect_timeout=0&charset=UTF-8&tcp_keep_alive=false",
+        assertEquals("jdbc:clickhouse://127.0.0.1:9000/default?query_timeout=0&connect_timeout=0&charset=UTF-8&tcp_keep_alive=false&use_nio=false&compress_method=lz4&compress_parallelism=0&compress_min_frame_bytes=256&compress_max_ratio=0.9&compress_skip_frames=16&read_ahead_blocks=0&read_ahead_max_bytes=268435456&lazy_decode=false&ping_idle_time=10",
                 cfg.jdbcUrl());
     }
 
@@ -59,10 +61,46 @@ class ClickHouseConfigTest {
         assertEquals(Charset.forName("GBK"), cfg.charset());
         assertFalse(cfg.tcpKeepAlive());
         assertEquals("db2", cfg.database());
-        assertEquals("jdbc:clickhouse://1.2.3.4:8123/db2?query_timeout=0&connect_timeout=0&charset=GBK&tcp_keep_alive=false&allow_distributed_ddl=true",
+        assertEquals("jdbc:clickhouse://1.2.3.4:8123/db2?query_timeout=0&connect_timeout=0&charset=GBK&tcp_keep_alive=false&use_nio=false&compress_method=lz4&compress_parallelism=0&compress_min_frame_bytes=256&compress_max_ratio=0.9&compress_skip_frames=16&read_ahead_blocks=0&read_ahead_max_bytes=268435456&lazy_decode=false&ping_idle_time=10&allow_distributed_ddl=true",
                 cfg.jdbcUrl());
     }
 
+    @Test
+    public void testCompressMethod() {
+        ClickHouseConfig cfg = ClickHouseConfig.Builder.builder()
+                .withJdbcUrl("jdbc:clickhouse://1.2.3.4:8123/db2?compress_method=ZSTD")
+                .build();
+        assertEquals(CompressionMethod.ZSTD, cfg.compressMethod());
+        assertEquals("ZSTD", cfg.querySettings().get(SettingKey.network_compression_method));
+        assertFalse(cfg.settings().containsKey(SettingKey.compress_method));
+        assertFalse(ClickHouseConfig.Builder.builder(cfg).compressMethod(CompressionMethod.LZ4).build()
+                .querySettings().containsKey(SettingKey.network_compression_method));
+        assertEquals("LZ4", cfg.withSettings(Collections.singletonMap(SettingKey.network_compression_method, "LZ4"))
+                .querySettings().get(SettingKey.network_compression_method));
+
+        assertEquals(CompressionMethod.NONE, cfg.withJdbcUrl("jdbc:clickhouse://1.2.3.4:8123/db2?compress_method=none").compressMethod());
+        assertThrows(IllegalArgumentException.class, () -> ClickHouseConfig.Builder.builder()
+                .withJdbcUrl("jdbc:clickhouse://1.2.3.4:8123/db2?compress_method=gzip")
+                .build());
+
+        cfg = cfg.withJdbcUrl("jdbc:clickhouse://1.2.3.4:8123/db2?compress_min_frame_bytes=1024&compress_max_ratio=0.5&compress_skip_frames=-1");
+        assertEquals(1024, cfg.compressMinFrameBytes());
+        assertEquals(0.5, cfg.compressMaxRatio());
+        assertEquals(0, cfg.compressSkipFrames());
+        assertFalse(cfg.settings().containsKey(SettingKey.compress_max_ratio));
+    }
+
+    @Test
+    public void testReadAheadMaxBytes() {
+        ClickHouseConfig cfg = ClickHouseConfig.Builder.builder()
+                .withJdbcUrl("jdbc:clickhouse://1.2.3.4:8123/db2?read_ahead_blocks=4&read_ahead_max_bytes=1048576")
+                .build();
+        assertEquals(1048576L, cfg.readAheadMaxBytes());
+        assertEquals(1048576L, ClickHouseConfig.Builder.builder(cfg).build().readAheadMaxBytes());
+        assertFalse(cfg.settings().containsKey(SettingKey.read_ahead_max_bytes));
+        assertEquals(0L, cfg.withJdbcUrl("jdbc:clickhouse://1.2.3.4:8123/db2?read_ahead_max_bytes=-1").readAheadMaxBytes());
+    }
+
     @Test
     public void testUndefinedSettings() {
         Properties props = new Properties();
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.stream;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.exception.ClickHouseSQLException;
+import com.github.housepower.protocol.DataResponse;
+import com.github.housepower.protocol.EOFStreamResponse;
+import com.github.housepower.protocol.ProfileInfoResponse;
+import com.github.housepower.protocol.ProgressResponse;
+import com.github.housepower.protocol.Response;
+import com.github.housepower.protocol.TotalsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClickHouseQueryResultTest {
+
+    @Test
+    public void successfullyDrainUnconsumedBlocks() throws Exception {
+        int blocks = 10;
+        AtomicInteger responses = new AtomicInteger();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(() -> {
+            int i = responses.getAndIncrement();
+            assertTrue(i <= blocks + 1, "read past the end of stream");
+            return i <= blocks ? new DataResponse("", new Block(i, new IColumn[0])) : EOFStreamResponse.INSTANCE;
+        });
+
+        assertEquals(0, result.header().rowCnt());
+        assertEquals(1, result.data().next().block().rowCnt());
+        result.drain();
+        assertEquals(blocks + 2, responses.get());
+        assertFalse(result.data().hasNext());
+        result.drain();
+        assertEquals(blocks + 2, responses.get());
+    }
+
+    @Test
+    public void successfullyStopReadingAfterError() throws Exception {
+        AtomicInteger responses = new AtomicInteger();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(() -> {
+            responses.incrementAndGet();
+            throw new SQLException("broken");
+        });
+
+        assertThrows(SQLException.class, result::header);
+        result.drain();
+        assertEquals(1, responses.get());
+    }
+
+    @Test
+    public void successfullyCancelOnlyUnfinishedQuery() throws Exception {
+        int blocks = 10;
+        AtomicInteger responses = new AtomicInteger();
+        AtomicInteger cancels = new AtomicInteger();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(() -> {
+            int i = responses.getAndIncrement();
+            return i <= blocks ? new DataResponse("", new Block(i, new IColumn[0])) : EOFStreamResponse.INSTANCE;
+        }, cancels::incrementAndGet);
+
+        assertEquals(0, result.header().rowCnt());
+        result.requestCancel();
+        result.cancel();
+        assertEquals(1, cancels.get());
+        assertTrue(result.isAtEnd());
+        assertEquals(blocks + 2, responses.get());
+
+        result.cancel();
+        assertEquals(1, cancels.get());
+    }
+
+    @Test
+    public void successfullyIgnoreServerExceptionAfterCancel() throws Exception {
+        AtomicInteger cancels = new AtomicInteger();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(() -> {
+            if (cancels.get() > 0) {
+                throw new ClickHouseSQLException(394, "Query was cancelled");
+            }
+            return new DataResponse("", new Block(1, new IColumn[0]));
+        }, cancels::incrementAndGet);
+
+        result.header();
+        result.cancel();
+        assertEquals(1, cancels.get());
+        assertTrue(result.isAtEnd());
+    }
+
+    @Test
+    public void failedCancelOnBrokenConnection() throws Exception {
+        AtomicInteger cancels = new AtomicInteger();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(() -> {
+            if (cancels.get() > 0) {
+                throw new SQLException("Connection reset");
+            }
+            return new DataResponse("", new Block(1, new IColumn[0]));
+        }, cancels::incrementAndGet);
+
+        result.header();
+        assertThrows(SQLException.class, result::cancel);
+        assertTrue(result.isAtEnd());
+    }
+
+    @Test
+    public void successfullyNotifyListener() throws Exception {
+        Iterator<Response> responses = Arrays.asList(
+                new DataResponse("", new Block()),
+                new ProgressResponse(10, 100, 20),
+                new DataResponse("", new Block(3, new IColumn[0])),
+                new TotalsResponse("", new Block(1, new IColumn[0])),
+                new ProfileInfoResponse(3, 1, 24, 1, 42, true),
+                EOFStreamResponse.INSTANCE).iterator();
+        List<String> events = new ArrayList<>();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(responses::next, responses::next, null,
+                new QueryListener() {
+                    @Override
+                    public void onProgress(ProgressResponse progress) {
+                        events.add("progress " + progress.newRows());
+                    }
+
+                    @Override
+                    public void onProfileInfo(ProfileInfoResponse profileInfo) {
+                        events.add("profile " + profileInfo.rowsBeforeLimit());
+                    }
+
+                    @Override
+                    public void onTotals(Block totals) {
+                        events.add("totals " + totals.rowCnt());
+                    }
+                });
+
+        assertEquals(3, result.data().next().block().rowCnt());
+        assertFalse(result.data().hasNext());
+        assertEquals(Arrays.asList("progress 10", "totals 1", "profile 42"), events);
+    }
+
+    @Test
+    public void successfullyDropSkippedTotals() throws Exception {
+        Iterator<Response> responses = Arrays.asList(
+                new DataResponse("", new Block()),
+                new TotalsResponse("", new Block()),
+                new ProgressResponse(10, 100, 20),
+                EOFStreamResponse.INSTANCE).iterator();
+        List<String> events = new ArrayList<>();
+        ClickHouseQueryResult result = new ClickHouseQueryResult(responses::next, responses::next, null,
+                new QueryListener() {
+                    @Override
+                    public void onProgress(ProgressResponse progress) {
+                        events.add("progress " + progress.newRows());
+                    }
+
+                    @Override
+                    public void onTotals(Block totals) {
+                        events.add("totals " + totals.rowCnt());
+                    }
+                });
+
+        result.header();
+        result.cancel();
+        assertEquals(Arrays.asList("progress 10"), events);
+    }
+}
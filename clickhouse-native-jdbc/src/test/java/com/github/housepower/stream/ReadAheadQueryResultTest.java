@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.housepower.stream;
+
+import com.github.housepower.data.Block;
+import com.github.housepower.data.IColumn;
+import com.github.housepower.misc.CheckedIterator;
+import com.github.housepower.protocol.DataResponse;
+import com.github.housepower.protocol.EOFStreamResponse;
+import com.github.housepower.protocol.Response;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadAheadQueryResultTest {
+
+    @Test
+    public void successfullyReadAllBlocksInOrder() throws Exception {
+        int blocks = 50;
+        AtomicInteger responses = new AtomicInteger();
+        ReadAheadQueryResult result = new ReadAheadQueryResult(new ClickHouseQueryResult(() -> {
+            int i = responses.getAndIncrement();
+            return i <= blocks ? new DataResponse("", new Block(i, new IColumn[0])) : EOFStreamResponse.INSTANCE;
+        }), 4);
+
+        assertEquals(0, result.header().rowCnt());
+        CheckedIterator<DataResponse, SQLException> iterator = result.data();
+        for (int i = 1; i <= blocks; i++) {
+            assertTrue(iterator.hasNext());
+            assertEquals(i, iterator.next().block().rowCnt());
+        }
+        assertFalse(iterator.hasNext());
+        assertNull(iterator.next());
+        result.awaitFinished();
+    }
+
+    @Test
+    public void successfullyRethrowErrorAfterReadBlocks() throws Exception {
+        AtomicInteger responses = new AtomicInteger();
+        ReadAheadQueryResult result = new ReadAheadQueryResult(new ClickHouseQueryResult(() -> {
+            int i = responses.getAndIncrement();
+            if (i > 2) {
+                throw new SQLException("broken");
+            }
+            return new DataResponse("", new Block(i, new IColumn[0]));
+        }), 8);
+
+        CheckedIterator<DataResponse, SQLException> iterator = result.data();
+        assertEquals(1, iterator.next().block().rowCnt());
+        assertEquals(2, iterator.next().block().rowCnt());
+        SQLException ex = assertThrows(SQLException.class, iterator::hasNext);
+        assertEquals("broken", ex.getMessage());
+    }
+
+    @Test
+    public void failedHeaderDoesNotBlockLaterCalls() throws Exception {
+        ReadAheadQueryResult result = new ReadAheadQueryResult(new ClickHouseQueryResult(() -> {
+            throw new SQLException("no header");
+        }), 8);
+
+        CheckedIterator<DataResponse, SQLException> iterator = result.data();
+        assertEquals("no header", assertThrows(SQLException.class, iterator::hasNext).getMessage());
+        assertEquals("no header", assertThrows(SQLException.class, iterator::hasNext).getMessage());
+        result.cancel();
+        result.awaitFinished();
+    }
+
+    @Test
+    public void successfullyDrainAfterCancel() throws Exception {
+        int blocks = 100;
+        AtomicInteger responses = new AtomicInteger();
+        ReadAheadQueryResult result = new ReadAheadQueryResult(new ClickHouseQueryResult(() -> {
+            int i = responses.getAndIncrement();
+            return i <= blocks ? new DataResponse("", new Block(1, new IColumn[0])) : EOFStreamResponse.INSTANCE;
+        }), 2);
+
+        assertTrue(result.data().hasNext());
+        result.cancel();
+        result.awaitFinished();
+        // the reader consumed the remaining stream, including the end of stream
+        assertEquals(blocks + 2, responses.get());
+    }
+
+    @Test
+    public void successfullyCancelBeforeStart() throws Exception {
+        int blocks = 10;
+        AtomicInteger responses = new AtomicInteger();
+        AtomicInteger cancels = new AtomicInteger();
+        ReadAheadQueryResult result = new ReadAheadQueryResult(new ClickHouseQueryResult(() -> {
+            int i = responses.getAndIncrement();
+            return i <= blocks ? new DataResponse("", new Block(1, new IColumn[0])) : EOFStreamResponse.INSTANCE;
+        }, cancels::incrementAndGet), 2);
+
+        result.cancel();
+        assertEquals(1, cancels.get());
+        assertEquals(blocks + 2, responses.get());
+        assertFalse(result.data().hasNext());
+        result.awaitFinished();
+    }
+}